@@ -1,21 +1,26 @@
 package com.example.iso8583.controller;
 
 import com.example.iso8583.contract.Iso8583Registry;
+import com.example.iso8583.contract.ServiceLoaderIso8583Registry;
 import com.example.iso8583.dto.PurchaseRequestDto;
-import com.example.iso8583.generated.GeneratedIso8583Registry;
+import com.example.iso8583.enrichment.EnrichedPurchase;
+import com.example.iso8583.enrichment.EnrichmentService;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
 
 @RestController
 @RequestMapping("iso8583")
 public class Iso8583Controller {
 
 	private final Iso8583Registry iso8583Registry;
+	private final EnrichmentService enrichmentService;
 
-	public Iso8583Controller() {
-		this.iso8583Registry = new GeneratedIso8583Registry();
+	public Iso8583Controller(EnrichmentService enrichmentService) {
+		this.iso8583Registry = new ServiceLoaderIso8583Registry();
+		this.enrichmentService = enrichmentService;
 	}
 
 	@PostMapping(path = "encoder", produces = "application/json")
@@ -29,4 +34,10 @@ public class Iso8583Controller {
 		final var decoder = iso8583Registry.getDecoder(PurchaseRequestDto.class);
 		return decoder.decode(message);
 	}
+
+	@PostMapping(path = "enrich", produces = "application/json")
+	public Mono<EnrichedPurchase> enrich(@RequestBody String message) {
+		final var decoder = iso8583Registry.getDecoder(PurchaseRequestDto.class);
+		return Mono.fromFuture(enrichmentService.enrichAsync(decoder.decode(message)));
+	}
 }
@@ -80,6 +80,7 @@ public class PurchaseRequestDto {
 		length = 4,
 		type = IsoType.NUMERIC,
 		required = false,
+		internCacheSize = 256,
 		description = "Merchant Category Code"
 	)
 	private String merchantCategoryCode;
@@ -89,6 +90,7 @@ public class PurchaseRequestDto {
 		length = 3,
 		type = IsoType.NUMERIC,
 		required = true,
+		internCacheSize = 64,
 		description = "Point of Service Entry Mode"
 	)
 	private String posEntryMode;
@@ -98,6 +100,7 @@ public class PurchaseRequestDto {
 		length = 2,
 		type = IsoType.NUMERIC,
 		required = true,
+		internCacheSize = 64,
 		description = "Point of Service Condition Code"
 	)
 	private String posConditionCode;
@@ -124,6 +127,7 @@ public class PurchaseRequestDto {
 		length = 8,
 		type = IsoType.ALPHA,
 		required = true,
+		internCacheSize = 1024,
 		description = "Card Acceptor Terminal Identification"
 	)
 	private String terminalId;
@@ -133,6 +137,7 @@ public class PurchaseRequestDto {
 		length = 15,
 		type = IsoType.ALPHA,
 		required = true,
+		internCacheSize = 1024,
 		description = "Card Acceptor Identification Code"
 	)
 	private String merchantId;
@@ -142,6 +147,7 @@ public class PurchaseRequestDto {
 		length = 3,
 		type = IsoType.NUMERIC,
 		required = true,
+		internCacheSize = 64,
 		description = "Transaction Currency Code"
 	)
 	private String currencyCode;
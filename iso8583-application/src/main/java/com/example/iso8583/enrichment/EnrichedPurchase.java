@@ -0,0 +1,15 @@
+package com.example.iso8583.enrichment;
+
+import com.example.iso8583.dto.PurchaseRequestDto;
+
+/**
+ * @param request  Mensagem decodificada
+ * @param merchant Dados do estabelecimento (campo 42), ou null se não cadastrado
+ * @param terminal Dados do terminal (campo 41), ou null se não cadastrado
+ */
+public record EnrichedPurchase(
+	PurchaseRequestDto request,
+	MerchantProfile merchant,
+	TerminalProfile terminal
+) {
+}
@@ -0,0 +1,215 @@
+package com.example.iso8583.enrichment;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache concorrente e limitado para dados de enriquecimento.
+ * <p>
+ * - Acerto: um {@code get} em {@link ConcurrentHashMap} e uma comparação de tempo, sem lock nem alocação.
+ * - TTL: entradas vencidas não são devolvidas e são recarregadas.
+ * - Refresh-ahead: após {@code refreshAfter}, o valor atual continua sendo servido enquanto a recarga
+ * roda em segundo plano.
+ * - Single-flight: chamadas simultâneas para a mesma chave compartilham uma única carga.
+ * - Limite de tamanho: ao passar de {@code maxSize}, saem primeiro as vencidas e depois as mais antigas
+ * de uma amostra.
+ * <p>
+ * Chaves inexistentes também ficam em cache (valor null) pelo mesmo TTL, para não sobrecarregar o loader.
+ */
+public class EnrichmentCache<K, V> {
+
+	private static final int EVICTION_SAMPLE = 16;
+
+	private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+	private final EnrichmentLoader<K, V> loader;
+	private final Executor executor;
+	private final int maxSize;
+	private final long ttlNanos;
+	private final long refreshAfterNanos;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * @param loader       Fonte dos dados
+	 * @param maxSize      Quantidade máxima de entradas
+	 * @param ttl          Tempo de vida de cada entrada
+	 * @param refreshAfter Idade a partir da qual o valor é recarregado em segundo plano (menor que o TTL)
+	 * @param executor     Executor das cargas assíncronas
+	 */
+	public EnrichmentCache(EnrichmentLoader<K, V> loader, int maxSize, Duration ttl, Duration refreshAfter,
+						   Executor executor) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("maxSize must be positive");
+		}
+		if (refreshAfter.compareTo(ttl) > 0) {
+			throw new IllegalArgumentException("refreshAfter must not exceed ttl");
+		}
+		this.loader = Objects.requireNonNull(loader, "loader cannot be null");
+		this.executor = Objects.requireNonNull(executor, "executor cannot be null");
+		this.maxSize = maxSize;
+		this.ttlNanos = ttl.toNanos();
+		this.refreshAfterNanos = refreshAfter.toNanos();
+	}
+
+	/**
+	 * Retorna o valor da chave, carregando-o na thread atual em caso de falta
+	 *
+	 * @return o valor, ou null se a chave não existir no loader
+	 */
+	public V get(K key) {
+		if (key == null) {
+			return null;
+		}
+
+		long now = System.nanoTime();
+		Entry<V> entry = entries.get(key);
+		if (entry != null && entry.expiresAt() - now > 0) {
+			hits.increment();
+			if (now - entry.refreshAt() >= 0) {
+				refreshAsync(key);
+			}
+			return entry.value();
+		}
+
+		misses.increment();
+		CompletableFuture<V> pending = new CompletableFuture<>();
+		CompletableFuture<V> existing = loading.putIfAbsent(key, pending);
+		if (existing != null) {
+			return join(existing);
+		}
+		load(key, pending);
+		return join(pending);
+	}
+
+	/**
+	 * Versão assíncrona de {@link #get}: acertos retornam um future já completo e faltas
+	 * são carregadas no executor
+	 */
+	public CompletableFuture<V> getAsync(K key) {
+		if (key == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+
+		long now = System.nanoTime();
+		Entry<V> entry = entries.get(key);
+		if (entry != null && entry.expiresAt() - now > 0) {
+			hits.increment();
+			if (now - entry.refreshAt() >= 0) {
+				refreshAsync(key);
+			}
+			return CompletableFuture.completedFuture(entry.value());
+		}
+
+		misses.increment();
+		return loadAsync(key);
+	}
+
+	/**
+	 * Remove a chave do cache
+	 */
+	public void invalidate(K key) {
+		entries.remove(key);
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public long hitCount() {
+		return hits.sum();
+	}
+
+	public long missCount() {
+		return misses.sum();
+	}
+
+	private void refreshAsync(K key) {
+		if (!loading.containsKey(key)) {
+			loadAsync(key);
+		}
+	}
+
+	private CompletableFuture<V> loadAsync(K key) {
+		CompletableFuture<V> pending = new CompletableFuture<>();
+		CompletableFuture<V> existing = loading.putIfAbsent(key, pending);
+		if (existing != null) {
+			return existing;
+		}
+		try {
+			executor.execute(() -> load(key, pending));
+		} catch (RuntimeException e) {
+			loading.remove(key, pending);
+			pending.completeExceptionally(e);
+		}
+		return pending;
+	}
+
+	private void load(K key, CompletableFuture<V> pending) {
+		try {
+			V value = loader.load(key);
+			long now = System.nanoTime();
+			entries.put(key, new Entry<>(value, now + refreshAfterNanos, now + ttlNanos));
+			if (entries.size() > maxSize) {
+				evict(now);
+			}
+			pending.complete(value);
+		} catch (Throwable e) {
+			pending.completeExceptionally(e);
+		} finally {
+			loading.remove(key, pending);
+		}
+	}
+
+	/**
+	 * Remove entradas vencidas e, se ainda acima do limite, a mais antiga de cada amostra
+	 */
+	private void evict(long now) {
+		Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+		while (entries.size() > maxSize && iterator.hasNext()) {
+			K oldestKey = null;
+			long oldestExpiry = 0;
+			for (int i = 0; i < EVICTION_SAMPLE && iterator.hasNext(); i++) {
+				Map.Entry<K, Entry<V>> candidate = iterator.next();
+				long expiresAt = candidate.getValue().expiresAt();
+				if (expiresAt - now <= 0) {
+					iterator.remove();
+				} else if (oldestKey == null || expiresAt - oldestExpiry < 0) {
+					oldestExpiry = expiresAt;
+					oldestKey = candidate.getKey();
+				}
+			}
+			if (oldestKey != null && entries.size() > maxSize) {
+				entries.remove(oldestKey);
+			}
+		}
+	}
+
+	private static <V> V join(CompletableFuture<V> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new IllegalStateException("Error loading enrichment data", cause);
+		}
+	}
+
+	/**
+	 * @param value     Valor carregado (null quando a chave não existe)
+	 * @param refreshAt Instante (nanoTime) a partir do qual recarrega em segundo plano
+	 * @param expiresAt Instante (nanoTime) em que deixa de ser servido
+	 */
+	private record Entry<V>(V value, long refreshAt, long expiresAt) {
+	}
+}
@@ -0,0 +1,50 @@
+package com.example.iso8583.enrichment;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Configuração do enriquecimento. Os loaders em memória fazem o papel do cadastro real;
+ * para usar outra fonte basta expor beans {@link EnrichmentLoader} próprios.
+ */
+@Configuration
+public class EnrichmentConfiguration {
+
+	@Bean(destroyMethod = "close")
+	public ExecutorService enrichmentExecutor() {
+		// Cargas costumam ser I/O bloqueante: uma virtual thread por carga
+		return Executors.newVirtualThreadPerTaskExecutor();
+	}
+
+	@Bean
+	public EnrichmentLoader<String, MerchantProfile> merchantLoader() {
+		return new InMemoryEnrichmentLoader<String, MerchantProfile>()
+			.put("MERCHANT0000001", new MerchantProfile("MERCHANT0000001", "Loja Exemplo", "5411", "Sao Paulo", true));
+	}
+
+	@Bean
+	public EnrichmentLoader<String, TerminalProfile> terminalLoader() {
+		return new InMemoryEnrichmentLoader<String, TerminalProfile>()
+			.put("TERM0001", new TerminalProfile("TERM0001", "MERCHANT0000001", "POS-X1", true));
+	}
+
+	@Bean
+	public EnrichmentService enrichmentService(
+		EnrichmentLoader<String, MerchantProfile> merchantLoader,
+		EnrichmentLoader<String, TerminalProfile> terminalLoader,
+		ExecutorService enrichmentExecutor,
+		@Value("${iso8583.enrichment.max-size:100000}") int maxSize,
+		@Value("${iso8583.enrichment.ttl:PT10M}") Duration ttl,
+		@Value("${iso8583.enrichment.refresh-after:PT5M}") Duration refreshAfter
+	) {
+		return new EnrichmentService(
+			new EnrichmentCache<>(merchantLoader, maxSize, ttl, refreshAfter, enrichmentExecutor),
+			new EnrichmentCache<>(terminalLoader, maxSize, ttl, refreshAfter, enrichmentExecutor)
+		);
+	}
+}
@@ -0,0 +1,18 @@
+package com.example.iso8583.enrichment;
+
+/**
+ * Fonte dos dados de enriquecimento (ex: cadastro de estabelecimentos e terminais).
+ *
+ * @param <K> Chave (ex: campo 42 ou 41)
+ * @param <V> Dados carregados
+ */
+@FunctionalInterface
+public interface EnrichmentLoader<K, V> {
+
+	/**
+	 * Carrega o valor da chave
+	 *
+	 * @return o valor, ou null se a chave não existir
+	 */
+	V load(K key) throws Exception;
+}
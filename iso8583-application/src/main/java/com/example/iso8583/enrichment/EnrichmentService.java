@@ -0,0 +1,49 @@
+package com.example.iso8583.enrichment;
+
+import com.example.iso8583.dto.PurchaseRequestDto;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Enriquecimento de autorizações com os dados do estabelecimento (campo 42) e do terminal (campo 41).
+ */
+public class EnrichmentService {
+
+	private final EnrichmentCache<String, MerchantProfile> merchants;
+	private final EnrichmentCache<String, TerminalProfile> terminals;
+
+	public EnrichmentService(EnrichmentCache<String, MerchantProfile> merchants,
+							 EnrichmentCache<String, TerminalProfile> terminals) {
+		this.merchants = merchants;
+		this.terminals = terminals;
+	}
+
+	/**
+	 * Enriquece a mensagem decodificada, carregando do loader apenas o que não estiver em cache
+	 */
+	public EnrichedPurchase enrich(PurchaseRequestDto request) {
+		return new EnrichedPurchase(
+			request,
+			merchants.get(request.getMerchantId()),
+			terminals.get(request.getTerminalId())
+		);
+	}
+
+	/**
+	 * Versão sem bloqueio de {@link #enrich}, para uso em handlers reativos: acertos de cache
+	 * completam de imediato e faltas são carregadas fora da thread de I/O
+	 */
+	public CompletableFuture<EnrichedPurchase> enrichAsync(PurchaseRequestDto request) {
+		CompletableFuture<MerchantProfile> merchant = merchants.getAsync(request.getMerchantId());
+		CompletableFuture<TerminalProfile> terminal = terminals.getAsync(request.getTerminalId());
+		return merchant.thenCombine(terminal, (m, t) -> new EnrichedPurchase(request, m, t));
+	}
+
+	public EnrichmentCache<String, MerchantProfile> merchants() {
+		return merchants;
+	}
+
+	public EnrichmentCache<String, TerminalProfile> terminals() {
+		return terminals;
+	}
+}
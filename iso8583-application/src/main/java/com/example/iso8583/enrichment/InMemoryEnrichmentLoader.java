@@ -0,0 +1,22 @@
+package com.example.iso8583.enrichment;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loader local em memória, usado no lugar do cadastro real em desenvolvimento e testes.
+ */
+public class InMemoryEnrichmentLoader<K, V> implements EnrichmentLoader<K, V> {
+
+	private final Map<K, V> values = new ConcurrentHashMap<>();
+
+	public InMemoryEnrichmentLoader<K, V> put(K key, V value) {
+		values.put(key, value);
+		return this;
+	}
+
+	@Override
+	public V load(K key) {
+		return values.get(key);
+	}
+}
@@ -0,0 +1,17 @@
+package com.example.iso8583.enrichment;
+
+/**
+ * @param merchantId   Campo 42
+ * @param name         Nome fantasia
+ * @param categoryCode MCC
+ * @param city         Cidade do estabelecimento
+ * @param active       se o estabelecimento pode transacionar
+ */
+public record MerchantProfile(
+	String merchantId,
+	String name,
+	String categoryCode,
+	String city,
+	boolean active
+) {
+}
@@ -0,0 +1,15 @@
+package com.example.iso8583.enrichment;
+
+/**
+ * @param terminalId Campo 41
+ * @param merchantId Estabelecimento ao qual o terminal pertence
+ * @param model      Modelo do equipamento
+ * @param active     se o terminal pode transacionar
+ */
+public record TerminalProfile(
+	String terminalId,
+	String merchantId,
+	String model,
+	boolean active
+) {
+}
@@ -0,0 +1,177 @@
+package com.example.iso8583.network;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estágio de saída de uma conexão: junta as mensagens codificadas prontas (cabeçalho de comprimento +
+ * corpo gerado pelo {@code IsoEncoder} ou pelos encoders gerados) em uma única escrita vetorizada
+ * ({@link GatheringByteChannel#write(ByteBuffer[], int, int)}) por flush.
+ * <p>
+ * O lote se adapta à profundidade da fila: qualquer thread pode enviar, mas só uma por vez escreve no
+ * canal. Enquanto ela escreve, as mensagens que chegam se acumulam e saem todas juntas na escrita
+ * seguinte. Com pouca carga cada mensagem sai sozinha, sem espera; sob carga, uma chamada de sistema
+ * leva até {@code maxBatch} mensagens.
+ * <p>
+ * Em canais não bloqueantes a escrita pode ficar incompleta: o restante é guardado e continua no próximo
+ * {@link #flush()} (ex: quando o selector indicar OP_WRITE).
+ */
+public class CoalescingFrameWriter {
+
+	private final GatheringByteChannel channel;
+	private final LengthHeader header;
+	private final int maxBatch;
+
+	private final ConcurrentLinkedQueue<byte[]> queue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger queued = new AtomicInteger();
+	private final AtomicBoolean flushing = new AtomicBoolean();
+
+	// Lote em escrita, acessado só pela thread que detém 'flushing'
+	private final ByteBuffer[] batch;
+	private final ByteBuffer[] headers;
+	private int batchStart;
+	private int batchEnd;
+
+	private final LongAdder framesWritten = new LongAdder();
+	private final LongAdder writeCalls = new LongAdder();
+
+	/**
+	 * @param channel  Canal da conexão (ex: {@code SocketChannel})
+	 * @param header   Cabeçalho de comprimento de cada mensagem
+	 * @param maxBatch Máximo de mensagens por escrita
+	 */
+	public CoalescingFrameWriter(GatheringByteChannel channel, LengthHeader header, int maxBatch) {
+		if (maxBatch <= 0) {
+			throw new IllegalArgumentException("maxBatch must be positive");
+		}
+		this.channel = Objects.requireNonNull(channel, "channel cannot be null");
+		this.header = Objects.requireNonNull(header, "header cannot be null");
+		this.maxBatch = maxBatch;
+		int slots = header == LengthHeader.NONE ? maxBatch : maxBatch * 2;
+		this.batch = new ByteBuffer[slots];
+		this.headers = new ByteBuffer[maxBatch];
+		for (int i = 0; i < maxBatch; i++) {
+			headers[i] = ByteBuffer.allocate(Math.max(header.getSize(), 1));
+		}
+	}
+
+	/**
+	 * Até 64 mensagens por escrita
+	 */
+	public CoalescingFrameWriter(GatheringByteChannel channel, LengthHeader header) {
+		this(channel, header, 64);
+	}
+
+	/**
+	 * Enfileira a mensagem e, se nenhuma outra thread estiver escrevendo, escreve a fila
+	 *
+	 * @param frame Mensagem codificada (sem cabeçalho); não deve ser alterada depois do envio
+	 */
+	public void send(byte[] frame) {
+		Objects.requireNonNull(frame, "frame cannot be null");
+		if (frame.length > header.getMaxLength()) {
+			throw new IllegalArgumentException("Frame too long for " + header + " header: " + frame.length);
+		}
+		queue.offer(frame);
+		queued.incrementAndGet();
+		flush();
+	}
+
+	/**
+	 * Escreve o que estiver pendente, se nenhuma outra thread já estiver escrevendo
+	 *
+	 * @return true se não restou nada pendente de escrita parcial
+	 */
+	public boolean flush() {
+		while (flushing.compareAndSet(false, true)) {
+			boolean complete;
+			try {
+				complete = drain();
+			} catch (IOException e) {
+				throw new UncheckedIOException("Error writing to channel", e);
+			} finally {
+				flushing.set(false);
+			}
+			// Mensagem enfileirada enquanto a flag estava ligada: ninguém mais vai escrevê-la
+			if (!complete || queued.get() == 0) {
+				return complete;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Mensagens aguardando na fila
+	 */
+	public int queueDepth() {
+		return Math.max(queued.get(), 0);
+	}
+
+	/**
+	 * Mensagens entregues ao canal
+	 */
+	public long framesWritten() {
+		return framesWritten.sum();
+	}
+
+	/**
+	 * Chamadas de escrita feitas no canal
+	 */
+	public long writeCalls() {
+		return writeCalls.sum();
+	}
+
+	/**
+	 * Escreve lotes até esvaziar a fila ou o canal não aceitar mais bytes
+	 *
+	 * @return true se tudo foi escrito
+	 */
+	private boolean drain() throws IOException {
+		while (true) {
+			if (batchStart == batchEnd && !fill()) {
+				return true;
+			}
+			channel.write(batch, batchStart, batchEnd - batchStart);
+			writeCalls.increment();
+			while (batchStart < batchEnd && !batch[batchStart].hasRemaining()) {
+				batch[batchStart++] = null;
+			}
+			if (batchStart < batchEnd) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Monta o próximo lote com o que houver na fila, até {@code maxBatch} mensagens
+	 */
+	private boolean fill() {
+		batchStart = 0;
+		batchEnd = 0;
+		int frames = 0;
+		byte[] frame;
+		while (frames < maxBatch && (frame = queue.poll()) != null) {
+			if (header != LengthHeader.NONE) {
+				ByteBuffer length = headers[frames];
+				length.clear();
+				header.write(frame.length, length);
+				batch[batchEnd++] = length.flip();
+			}
+			batch[batchEnd++] = ByteBuffer.wrap(frame);
+			frames++;
+		}
+		if (frames == 0) {
+			return false;
+		}
+		queued.addAndGet(-frames);
+		framesWritten.add(frames);
+		return true;
+	}
+}
@@ -0,0 +1,59 @@
+package com.example.iso8583.network;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Cabeçalho de comprimento que precede cada mensagem no socket.
+ */
+public enum LengthHeader {
+	/**
+	 * Sem cabeçalho: o fim da mensagem é descoberto pelo bitmap
+	 */
+	NONE(0, Integer.MAX_VALUE),
+
+	/**
+	 * 2 bytes binários big-endian (até 65535)
+	 */
+	BINARY_2(2, 0xFFFF),
+
+	/**
+	 * 4 dígitos ASCII (até 9999)
+	 */
+	ASCII_4(4, 9999);
+
+	private final int size;
+	private final int maxLength;
+
+	LengthHeader(int size, int maxLength) {
+		this.size = size;
+		this.maxLength = maxLength;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Maior comprimento de mensagem representável no cabeçalho
+	 */
+	public int getMaxLength() {
+		return maxLength;
+	}
+
+	/**
+	 * Escreve o comprimento (já validado contra {@link #getMaxLength()}) no buffer, na posição atual
+	 */
+	public void write(int length, ByteBuffer buffer) {
+		switch (this) {
+			case NONE -> {
+			}
+			case BINARY_2 -> buffer.putShort((short) length);
+			case ASCII_4 -> {
+				buffer.put((byte) ('0' + length / 1000));
+				buffer.put((byte) ('0' + length / 100 % 10));
+				buffer.put((byte) ('0' + length / 10 % 10));
+				buffer.put((byte) ('0' + length % 10));
+			}
+		}
+	}
+}
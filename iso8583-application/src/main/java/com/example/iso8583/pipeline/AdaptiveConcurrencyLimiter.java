@@ -0,0 +1,174 @@
+package com.example.iso8583.pipeline;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limite de requisições simultâneas ajustado pela latência observada (estilo gradiente/Vegas).
+ * <p>
+ * - A cada janela, compara a latência recente (p90 da janela) com a latência de referência (média móvel
+ * lenta): se a recente sobe, o limite cai na mesma proporção; se não, cresce aos poucos (raiz do limite).
+ * - Se o p90 da janela passar da latência alvo (ex: o timeout do emissor), o limite cai pela metade.
+ * - Quando a carga usa menos da metade do limite, ele não cresce: não há medida que justifique.
+ * <p>
+ * Quem não consegue vaga em {@link #tryAcquire()} deve ser recusado na hora, em vez de esperar na fila
+ * até estourar o timeout. Toda vaga obtida precisa ser devolvida em {@link #release(long)}.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+	private static final double SMOOTHING = 0.2;
+	private static final double REFERENCE_DECAY = 0.05;
+	private static final double MIN_GRADIENT = 0.5;
+	private static final int MIN_WINDOW_SAMPLES = 10;
+
+	private final int minLimit;
+	private final int maxLimit;
+	private final long targetLatencyNanos;
+	private final long windowNanos;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger peakInFlight = new AtomicInteger();
+	private final LatencyHistogram latencies = new LatencyHistogram();
+	private final LatencyHistogram window = new LatencyHistogram();
+	private final AtomicBoolean updating = new AtomicBoolean();
+	private final LongAdder rejected = new LongAdder();
+
+	private volatile int limit;
+	private volatile long windowStart = System.nanoTime();
+	// Acessados só por quem detém 'updating'
+	private double estimatedLimit;
+	private double referenceLatency;
+
+	/**
+	 * @param initialLimit  Limite inicial
+	 * @param minLimit      Menor limite possível
+	 * @param maxLimit      Maior limite possível
+	 * @param targetLatency Latência máxima aceitável (p90 da janela)
+	 * @param window        Intervalo entre ajustes do limite
+	 */
+	public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, Duration targetLatency,
+									  Duration window) {
+		if (minLimit <= 0 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+			throw new IllegalArgumentException("Limits must satisfy 0 < min <= initial <= max");
+		}
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.targetLatencyNanos = targetLatency.toNanos();
+		this.windowNanos = window.toNanos();
+		this.limit = initialLimit;
+		this.estimatedLimit = initialLimit;
+	}
+
+	/**
+	 * Limite inicial 20, entre 4 e 1000, ajustado a cada 100 ms
+	 *
+	 * @param targetLatency Latência máxima aceitável (ex: timeout do emissor menos a margem de rede)
+	 */
+	public AdaptiveConcurrencyLimiter(Duration targetLatency) {
+		this(20, 4, 1000, targetLatency, Duration.ofMillis(100));
+	}
+
+	/**
+	 * Reserva uma vaga se o limite permitir
+	 *
+	 * @return false se o limite foi atingido; a requisição deve ser recusada
+	 */
+	public boolean tryAcquire() {
+		while (true) {
+			int current = inFlight.get();
+			if (current >= limit) {
+				rejected.increment();
+				return false;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				if (current + 1 > peakInFlight.get()) {
+					peakInFlight.accumulateAndGet(current + 1, Math::max);
+				}
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Devolve a vaga e registra a latência da requisição
+	 *
+	 * @param startNanos {@link System#nanoTime()} de quando a requisição foi aceita
+	 */
+	public void release(long startNanos) {
+		long now = System.nanoTime();
+		inFlight.decrementAndGet();
+		long latency = now - startNanos;
+		latencies.record(latency);
+		window.record(latency);
+		if (now - windowStart >= windowNanos && window.count() >= MIN_WINDOW_SAMPLES
+			&& updating.compareAndSet(false, true)) {
+			try {
+				update(now);
+			} finally {
+				updating.set(false);
+			}
+		}
+	}
+
+	/**
+	 * Devolve a vaga sem registrar latência (ex: requisição abandonada por erro antes de processar)
+	 */
+	public void abandon() {
+		inFlight.decrementAndGet();
+	}
+
+	public int limit() {
+		return limit;
+	}
+
+	/**
+	 * Requisições aceitas e ainda não devolvidas
+	 */
+	public int inFlight() {
+		return inFlight.get();
+	}
+
+	/**
+	 * Requisições recusadas por limite atingido
+	 */
+	public long rejected() {
+		return rejected.sum();
+	}
+
+	/**
+	 * Latências de todas as requisições devolvidas desde a criação
+	 */
+	public LatencyHistogram latencies() {
+		return latencies;
+	}
+
+	private void update(long now) {
+		double recent = window.valueAtPercentile(0.9);
+		int peak = peakInFlight.getAndSet(inFlight.get());
+		window.reset();
+		windowStart = now;
+
+		if (referenceLatency == 0) {
+			referenceLatency = recent;
+		} else {
+			// A referência acompanha quedas rápido e subidas devagar, para não normalizar a degradação
+			double decay = recent < referenceLatency ? SMOOTHING : REFERENCE_DECAY;
+			referenceLatency += (recent - referenceLatency) * decay;
+		}
+
+		if (recent > targetLatencyNanos) {
+			// Acima do alvo: corte imediato, sem suavização
+			estimatedLimit = Math.max(minLimit, estimatedLimit * MIN_GRADIENT);
+		} else if (peak < estimatedLimit / 2) {
+			return;
+		} else {
+			double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, referenceLatency / recent));
+			double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+			estimatedLimit = Math.max(minLimit, Math.min(maxLimit,
+				estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+		}
+		limit = (int) estimatedLimit;
+	}
+}
@@ -0,0 +1,122 @@
+package com.example.iso8583.pipeline;
+
+import com.example.iso8583.domain.FieldTemplate;
+import com.example.iso8583.domain.IsoFrame;
+import com.example.iso8583.service.SpecCodec;
+import com.example.iso8583.utils.BitmapUtils;
+import com.example.iso8583.utils.FieldFormatter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Monta respostas de recusa direto dos bytes da requisição, sem decodificar nem passar pelo encoder.
+ * <p>
+ * O campo 39 (código de resposta) é codificado uma vez na construção; por mensagem só se copia o MTI
+ * com a função de resposta (0200 → 0210), o bitmap recalculado e os campos ecoados exatamente como
+ * chegaram. Pensado para recusar sob sobrecarga (código "91", emissor indisponível) gastando o mínimo.
+ */
+public class DeclineEncoder {
+
+	/**
+	 * Campos devolvidos na resposta quando presentes na requisição
+	 */
+	public static final int[] DEFAULT_ECHO_FIELDS = {2, 3, 4, 7, 11, 12, 13, 32, 37, 41, 42, 49};
+
+	private static final int RESPONSE_CODE = 39;
+
+	private final SpecCodec codec;
+	private final byte[] responseCode;
+	private final boolean[] echoed = new boolean[129];
+	private final int[] lengthDigits = new int[129];
+	private final ThreadLocal<IsoFrame> frames = ThreadLocal.withInitial(IsoFrame::new);
+
+	/**
+	 * @param codec        Especificação das mensagens
+	 * @param responseCode Valor do campo 39 (ex: "91")
+	 * @param echoFields   Campos copiados da requisição (os ausentes da especificação são ignorados)
+	 */
+	public DeclineEncoder(SpecCodec codec, String responseCode, int... echoFields) {
+		this.codec = Objects.requireNonNull(codec, "codec cannot be null");
+		FieldTemplate template = codec.spec().template(RESPONSE_CODE);
+		if (template == null) {
+			throw new IllegalStateException("Field " + RESPONSE_CODE + " not defined in spec " + codec.spec().name());
+		}
+		this.responseCode = FieldFormatter.encodingValue(responseCode, template.type(), template.length())
+			.getBytes(StandardCharsets.US_ASCII);
+
+		for (int field : echoFields) {
+			if (field < 2 || field > 128 || field == RESPONSE_CODE || field == 65) {
+				throw new IllegalArgumentException("Invalid echo field: " + field);
+			}
+			FieldTemplate echo = codec.spec().template(field);
+			if (echo == null) {
+				continue; // não pode aparecer na requisição
+			}
+			echoed[field] = true;
+			lengthDigits[field] = echo.type().getLengthDigits();
+		}
+	}
+
+	/**
+	 * Recusa com código "91" (emissor indisponível) ecoando {@link #DEFAULT_ECHO_FIELDS}
+	 */
+	public DeclineEncoder(SpecCodec codec) {
+		this(codec, "91", DEFAULT_ECHO_FIELDS);
+	}
+
+	/**
+	 * Recusa para a requisição em bytes
+	 *
+	 * @return a resposta codificada, ou null se a requisição não puder ser indexada
+	 */
+	public byte[] decline(byte[] request) {
+		IsoFrame frame = frames.get();
+		return codec.tryIndex(request, 0, request.length, frame) ? decline(frame) : null;
+	}
+
+	/**
+	 * Recusa para uma requisição já indexada
+	 */
+	public byte[] decline(IsoFrame request) {
+		byte[] data = request.buffer();
+		long secondary = 0;
+		long primary = 1L << (64 - RESPONSE_CODE);
+		int size = 4 + 16 + responseCode.length;
+		for (int field = 2; field <= 128; field++) {
+			if (echoed[field] && request.has(field)) {
+				if (field <= 64) {
+					primary |= 1L << (64 - field);
+				} else {
+					secondary |= 1L << (128 - field);
+				}
+				size += lengthDigits[field] + request.fieldLength(field);
+			}
+		}
+		if (secondary != 0) {
+			primary |= Long.MIN_VALUE;
+			size += 16;
+		}
+
+		byte[] response = new byte[size];
+		System.arraycopy(data, request.offset(), response, 0, 4);
+		// Função da mensagem: requisição (par) vira resposta (ímpar)
+		response[2] = (byte) (response[2] | 1);
+		int pos = BitmapUtils.writeHex(primary, response, 4);
+		if (secondary != 0) {
+			pos = BitmapUtils.writeHex(secondary, response, pos);
+		}
+		for (int field = 2; field <= 128; field++) {
+			if (field == RESPONSE_CODE) {
+				System.arraycopy(responseCode, 0, response, pos, responseCode.length);
+				pos += responseCode.length;
+			} else if (echoed[field] && request.has(field)) {
+				int start = request.start(field) - lengthDigits[field];
+				int length = request.end(field) - start;
+				System.arraycopy(data, start, response, pos, length);
+				pos += length;
+			}
+		}
+		return response;
+	}
+}
@@ -0,0 +1,108 @@
+package com.example.iso8583.pipeline;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latência sem lock, com buckets log-lineares: cada potência de 2 é dividida em 8 faixas,
+ * então o valor reportado fica no máximo 12,5% acima do real, de 1 ns a centenas de anos.
+ * <p>
+ * Gravar é um incremento atômico em um array fixo, sem alocação; várias threads podem gravar ao mesmo
+ * tempo. Leituras feitas durante gravações são aproximadas (o bucket e o total podem divergir em poucas
+ * amostras), o que basta para percentis e controle de carga.
+ */
+public final class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong total = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Registra uma amostra (valores negativos contam como 0)
+	 */
+	public void record(long value) {
+		long sample = Math.max(value, 0);
+		counts.incrementAndGet(indexOf(sample));
+		total.incrementAndGet();
+		if (sample > max.get()) {
+			max.accumulateAndGet(sample, Math::max);
+		}
+	}
+
+	/**
+	 * Quantidade de amostras
+	 */
+	public long count() {
+		return total.get();
+	}
+
+	/**
+	 * Maior amostra registrada
+	 */
+	public long max() {
+		return max.get();
+	}
+
+	/**
+	 * Valor abaixo do qual está a fração informada das amostras (limite superior do bucket)
+	 *
+	 * @param percentile Fração entre 0 e 1 (ex: 0.99)
+	 * @return o valor, ou 0 se não houver amostras
+	 */
+	public long valueAtPercentile(double percentile) {
+		if (percentile < 0 || percentile > 1) {
+			throw new IllegalArgumentException("Percentile must be between 0 and 1: " + percentile);
+		}
+		long count = total.get();
+		if (count == 0) {
+			return 0;
+		}
+		long target = Math.max((long) Math.ceil(count * percentile), 1);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts.get(i);
+			if (seen >= target) {
+				return Math.min(upperBound(i), max.get());
+			}
+		}
+		return max.get();
+	}
+
+	/**
+	 * Zera as contagens; amostras gravadas durante a limpeza podem se perder
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+		total.set(0);
+		max.set(0);
+	}
+
+	/**
+	 * Valores até 7 têm bucket próprio; acima, o expoente escolhe a faixa e os 3 bits seguintes ao mais
+	 * alto escolhem a subdivisão
+	 */
+	private static int indexOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	private static long upperBound(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		int shift = exponent - SUB_BUCKET_BITS;
+		long upper = ((long) (SUB_BUCKETS + index % SUB_BUCKETS + 1) << shift) - 1;
+		return upper < 0 ? Long.MAX_VALUE : upper;
+	}
+}
@@ -0,0 +1,68 @@
+package com.example.iso8583.pipeline;
+
+import com.example.iso8583.domain.IsoFrame;
+
+import java.util.Objects;
+
+/**
+ * Controle de admissão: cada requisição passa pelo {@link AdaptiveConcurrencyLimiter} na thread de I/O,
+ * antes de entrar na fila do shard ({@link ShardedPipeline#submit}), e, sem vaga, recebe ali mesmo a recusa
+ * pré-codificada do {@link DeclineEncoder} em vez de esperar até estourar o timeout do emissor.
+ * <p>
+ * A latência medida vai da admissão até o envio da resposta, incluindo a espera na fila; assim o limite
+ * vale para as requisições em andamento no sistema inteiro, não só para as que estão sendo processadas.
+ * Uma instância é compartilhada por todas as threads que recebem requisições.
+ */
+public class LoadShedder {
+
+	private final AdaptiveConcurrencyLimiter limiter;
+	private final DeclineEncoder declines;
+
+	public LoadShedder(AdaptiveConcurrencyLimiter limiter, DeclineEncoder declines) {
+		this.limiter = Objects.requireNonNull(limiter, "limiter cannot be null");
+		this.declines = Objects.requireNonNull(declines, "declines cannot be null");
+	}
+
+	/**
+	 * Reserva uma vaga para a requisição
+	 *
+	 * @return false se o limite foi atingido; responda com {@link #decline}
+	 */
+	public boolean tryAdmit() {
+		return limiter.tryAcquire();
+	}
+
+	/**
+	 * Devolve a vaga depois do envio da resposta (ou de concluir sem resposta)
+	 *
+	 * @param admittedNanos {@link System#nanoTime()} de quando a requisição foi admitida
+	 */
+	public void complete(long admittedNanos) {
+		limiter.release(admittedNanos);
+	}
+
+	/**
+	 * Devolve a vaga de uma requisição admitida que não chegou a ser processada (ex: fila cheia)
+	 */
+	public void abandon() {
+		limiter.abandon();
+	}
+
+	/**
+	 * Recusa para a requisição em bytes, ou null se ela não puder ser indexada
+	 */
+	public byte[] decline(byte[] request) {
+		return declines.decline(request);
+	}
+
+	/**
+	 * Recusa para uma requisição já indexada
+	 */
+	public byte[] decline(IsoFrame request) {
+		return declines.decline(request);
+	}
+
+	public AdaptiveConcurrencyLimiter limiter() {
+		return limiter;
+	}
+}
@@ -0,0 +1,77 @@
+package com.example.iso8583.pipeline;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fila circular limitada, sem lock, para vários produtores e um único consumidor.
+ * <p>
+ * Produtores reservam a posição com um CAS no contador de escrita e publicam o elemento na posição;
+ * o consumidor lê a posição, limpa e avança o contador de leitura com escrita ordenada, sem CAS.
+ * Enquanto um produtor reservou mas ainda não publicou, o consumidor vê a posição vazia e tenta de novo.
+ */
+public final class MpscRingBuffer<E> {
+
+	private final AtomicReferenceArray<E> slots;
+	private final int mask;
+	private final AtomicLong tail = new AtomicLong();
+	private final AtomicLong head = new AtomicLong();
+
+	/**
+	 * @param capacity Capacidade, arredondada para potência de 2
+	 */
+	public MpscRingBuffer(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive");
+		}
+		int size = Integer.highestOneBit(capacity);
+		size = size < capacity ? size << 1 : size;
+		this.slots = new AtomicReferenceArray<>(size);
+		this.mask = size - 1;
+	}
+
+	/**
+	 * Insere o elemento; seguro para várias threads
+	 *
+	 * @return false se a fila estiver cheia
+	 */
+	public boolean offer(E element) {
+		long position;
+		do {
+			position = tail.get();
+			if (position - head.get() > mask) {
+				return false;
+			}
+		} while (!tail.compareAndSet(position, position + 1));
+		slots.lazySet((int) position & mask, element);
+		return true;
+	}
+
+	/**
+	 * Remove o próximo elemento; só pode ser chamado pela thread consumidora
+	 *
+	 * @return o elemento, ou null se a fila estiver vazia (ou o próximo ainda não foi publicado)
+	 */
+	public E poll() {
+		long position = head.get();
+		int index = (int) position & mask;
+		E element = slots.get(index);
+		if (element == null) {
+			return null;
+		}
+		slots.lazySet(index, null);
+		head.lazySet(position + 1);
+		return element;
+	}
+
+	/**
+	 * Quantidade aproximada de elementos
+	 */
+	public int size() {
+		return (int) Math.max(tail.get() - head.get(), 0);
+	}
+
+	public int capacity() {
+		return mask + 1;
+	}
+}
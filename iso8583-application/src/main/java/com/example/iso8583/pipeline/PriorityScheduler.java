@@ -0,0 +1,296 @@
+package com.example.iso8583.pipeline;
+
+import com.example.iso8583.domain.IsoFrame;
+import com.example.iso8583.domain.IsoMessage;
+import com.example.iso8583.enums.MessageClass;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Escalonador por classe de MTI ({@link MessageClass}) que alimenta o pool de workers.
+ * <p>
+ * - Cada classe tem sua fila limitada: autorizações enchendo a fila não impedem a entrada de echo tests,
+ * estornos e avisos, que sem isso esperariam atrás delas e o host derrubaria o link.
+ * - A retirada é justa e ponderada (deficit round robin por quantidade): em cada rodada a classe pode
+ * entregar até o seu peso em mensagens antes de passar a vez, então as classes prioritárias saem primeiro
+ * sem que as autorizações fiquem paradas indefinidamente.
+ * - Profundidade, entradas, saídas, recusas e tempo total de espera ficam disponíveis por classe em
+ * {@link #metrics()}.
+ *
+ * @param <T> Item escalonado (ex: frame bruto ou mensagem decodificada)
+ */
+public class PriorityScheduler<T> implements AutoCloseable {
+
+	private static final MessageClass[] CLASSES = MessageClass.values();
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final List<ArrayDeque<Entry<T>>> queues = new ArrayList<>();
+	private final int[] weights = new int[CLASSES.length];
+	private final int capacityPerClass;
+
+	private final long[] enqueued = new long[CLASSES.length];
+	private final long[] dequeued = new long[CLASSES.length];
+	private final long[] rejected = new long[CLASSES.length];
+	private final long[] waitNanos = new long[CLASSES.length];
+
+	private final List<Thread> workers = new ArrayList<>();
+	private int size;
+	private int current;
+	private int credit;
+	private volatile boolean running = true;
+
+	/**
+	 * @param capacityPerClass Capacidade da fila de cada classe
+	 * @param weights          Mensagens por rodada de cada classe (classes ausentes ficam com peso 1)
+	 */
+	public PriorityScheduler(int capacityPerClass, Map<MessageClass, Integer> weights) {
+		if (capacityPerClass <= 0) {
+			throw new IllegalArgumentException("capacityPerClass must be positive");
+		}
+		this.capacityPerClass = capacityPerClass;
+		for (MessageClass messageClass : CLASSES) {
+			int weight = weights.getOrDefault(messageClass, 1);
+			if (weight <= 0) {
+				throw new IllegalArgumentException("Weight must be positive for " + messageClass);
+			}
+			this.weights[messageClass.ordinal()] = weight;
+			this.queues.add(new ArrayDeque<>());
+		}
+		this.credit = this.weights[0];
+	}
+
+	/**
+	 * Pesos padrão: gerenciamento de rede 8, estornos 4, avisos 2, autorizações 1
+	 */
+	public PriorityScheduler(int capacityPerClass) {
+		this(capacityPerClass, defaultWeights());
+	}
+
+	public static Map<MessageClass, Integer> defaultWeights() {
+		Map<MessageClass, Integer> weights = new EnumMap<>(MessageClass.class);
+		weights.put(MessageClass.NETWORK_MANAGEMENT, 8);
+		weights.put(MessageClass.REVERSAL, 4);
+		weights.put(MessageClass.ADVICE, 2);
+		weights.put(MessageClass.AUTHORIZATION, 1);
+		return weights;
+	}
+
+	/**
+	 * Enfileira uma mensagem já decodificada, classificada pelo MTI
+	 *
+	 * @return false se a fila da classe estiver cheia
+	 */
+	public boolean submit(IsoMessage message, T item) {
+		return submit(MessageClass.of(message.getMti()), item);
+	}
+
+	/**
+	 * Enfileira uma mensagem indexada sem decodificar, classificada pelo MTI do frame
+	 *
+	 * @return false se a fila da classe estiver cheia
+	 */
+	public boolean submit(IsoFrame frame, T item) {
+		return submit(MessageClass.of(frame.mti()), item);
+	}
+
+	/**
+	 * Enfileira o item na fila da classe
+	 *
+	 * @return false se a fila da classe estiver cheia ou o escalonador estiver fechado
+	 */
+	public boolean submit(MessageClass messageClass, T item) {
+		Objects.requireNonNull(item, "item cannot be null");
+		int index = messageClass.ordinal();
+		lock.lock();
+		try {
+			ArrayDeque<Entry<T>> queue = queues.get(index);
+			if (!running || queue.size() >= capacityPerClass) {
+				rejected[index]++;
+				return false;
+			}
+			queue.addLast(new Entry<>(item, System.nanoTime()));
+			enqueued[index]++;
+			size++;
+			notEmpty.signal();
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Próximo item pela ordem justa ponderada, esperando se todas as filas estiverem vazias
+	 *
+	 * @return o item, ou null se o escalonador foi fechado
+	 */
+	public T take() throws InterruptedException {
+		lock.lock();
+		try {
+			while (size == 0) {
+				if (!running) {
+					return null;
+				}
+				notEmpty.await();
+			}
+			return next();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Como {@link #take()}, esperando no máximo o tempo informado
+	 *
+	 * @return o item, ou null se o tempo acabou ou o escalonador foi fechado
+	 */
+	public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+		lock.lock();
+		try {
+			while (size == 0) {
+				if (!running || nanos <= 0) {
+					return null;
+				}
+				nanos = notEmpty.awaitNanos(nanos);
+			}
+			return next();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Inicia workers que consomem o escalonador e entregam cada item ao handler
+	 */
+	public void start(int workerCount, Consumer<? super T> handler) {
+		lock.lock();
+		try {
+			for (int i = 0; i < workerCount; i++) {
+				Thread worker = new Thread(() -> work(handler), "iso8583-worker-" + workers.size());
+				workers.add(worker);
+				worker.start();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Quantidade de itens aguardando na classe
+	 */
+	public int depth(MessageClass messageClass) {
+		lock.lock();
+		try {
+			return queues.get(messageClass.ordinal()).size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Fotografia das métricas de cada classe
+	 */
+	public Map<MessageClass, ClassMetrics> metrics() {
+		Map<MessageClass, ClassMetrics> metrics = new EnumMap<>(MessageClass.class);
+		lock.lock();
+		try {
+			for (MessageClass messageClass : CLASSES) {
+				int i = messageClass.ordinal();
+				metrics.put(messageClass, new ClassMetrics(queues.get(i).size(), enqueued[i], dequeued[i],
+					rejected[i], waitNanos[i]));
+			}
+		} finally {
+			lock.unlock();
+		}
+		return metrics;
+	}
+
+	/**
+	 * Para de aceitar itens; os workers terminam o que já estava nas filas e encerram
+	 */
+	@Override
+	public void close() {
+		lock.lock();
+		try {
+			running = false;
+			notEmpty.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		for (Thread worker : workers) {
+			try {
+				worker.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Deficit round robin: a classe atual entrega enquanto tiver crédito e itens; depois a vez passa
+	 * para a próxima, que recebe crédito igual ao seu peso. Chamado com o lock e com size > 0.
+	 */
+	private T next() {
+		while (true) {
+			ArrayDeque<Entry<T>> queue = queues.get(current);
+			if (credit > 0 && !queue.isEmpty()) {
+				credit--;
+				Entry<T> entry = queue.pollFirst();
+				dequeued[current]++;
+				waitNanos[current] += System.nanoTime() - entry.enqueuedAt();
+				size--;
+				return entry.item();
+			}
+			current = (current + 1) % CLASSES.length;
+			credit = weights[current];
+		}
+	}
+
+	private void work(Consumer<? super T> handler) {
+		try {
+			T item;
+			while ((item = take()) != null) {
+				try {
+					handler.accept(item);
+				} catch (RuntimeException e) {
+					// Falha de uma mensagem não derruba o worker
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private record Entry<T>(T item, long enqueuedAt) {
+	}
+
+	/**
+	 * Métricas de uma classe
+	 *
+	 * @param depth          Itens aguardando
+	 * @param enqueued       Itens aceitos
+	 * @param dequeued       Itens entregues aos workers
+	 * @param rejected       Itens recusados por fila cheia
+	 * @param totalWaitNanos Soma do tempo de espera na fila dos itens entregues
+	 */
+	public record ClassMetrics(int depth, long enqueued, long dequeued, long rejected, long totalWaitNanos) {
+
+		/**
+		 * Espera média na fila em microssegundos
+		 */
+		public long averageWaitMicros() {
+			return dequeued == 0 ? 0 : totalWaitNanos / dequeued / 1000;
+		}
+	}
+}
@@ -0,0 +1,17 @@
+package com.example.iso8583.pipeline;
+
+/**
+ * Processamento de uma mensagem dentro do shard: decode, regra de negócio e encode.
+ * <p>
+ * Cada shard tem sua própria instância, sempre chamada pela mesma thread, então pode guardar estado
+ * sem sincronização (frames, buffers, caches locais).
+ */
+@FunctionalInterface
+public interface ShardHandler {
+
+	/**
+	 * @param frame Mensagem recebida
+	 * @return a resposta codificada, ou null se não houver resposta
+	 */
+	byte[] process(byte[] frame);
+}
@@ -0,0 +1,264 @@
+package com.example.iso8583.pipeline;
+
+import com.example.iso8583.domain.IsoFrame;
+import com.example.iso8583.service.SpecCodec;
+import com.example.iso8583.utils.HashUtils;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Pipeline de processamento dividido em shards de thread única, escolhidos pelo terminal (campo 41).
+ * <p>
+ * - Mensagens do mesmo terminal caem sempre no mesmo shard e são processadas em ordem, sem lock por terminal.
+ * - Cada shard tem uma thread própria, uma {@link MpscRingBuffer} de entrada e um {@link ShardHandler}
+ * exclusivo, onde rodam decode, regra de negócio e encode; o estado do handler fica quente no cache do núcleo.
+ * - O terminal é lido direto do frame bruto ({@link SpecCodec#tryIndex}); frames sem campo 41 ou malformados
+ * vão para o shard 0, onde o próprio handler reporta o erro.
+ * - Fila cheia não bloqueia: {@link #submit} retorna false e quem recebeu decide (ex: responder recusa).
+ * - Com um {@link LoadShedder}, a admissão acontece no {@link #submit}, antes da fila: sem vaga, a recusa é
+ * respondida na própria thread de I/O; com vaga, a latência é medida da admissão até o envio da resposta.
+ */
+public class ShardedPipeline implements AutoCloseable {
+
+	private static final int TERMINAL_ID = 41;
+	private static final int SPINS_BEFORE_PARK = 200;
+	private static final long PARK_NANOS = 1_000_000;
+
+	private final SpecCodec codec;
+	private final Shard[] shards;
+	private final LoadShedder shedder;
+	private final ThreadLocal<IsoFrame> frames = ThreadLocal.withInitial(IsoFrame::new);
+
+	private final LongAdder processed = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+
+	private volatile boolean running = true;
+
+	/**
+	 * @param codec         Especificação usada para localizar o campo 41 no frame bruto
+	 * @param shardCount    Quantidade de shards (tipicamente o número de núcleos)
+	 * @param queueCapacity Capacidade da fila de cada shard
+	 * @param handlers      Cria o handler de cada shard
+	 */
+	public ShardedPipeline(SpecCodec codec, int shardCount, int queueCapacity, Supplier<ShardHandler> handlers) {
+		this(codec, shardCount, queueCapacity, handlers, null);
+	}
+
+	/**
+	 * @param codec         Especificação usada para localizar o campo 41 no frame bruto
+	 * @param shardCount    Quantidade de shards (tipicamente o número de núcleos)
+	 * @param queueCapacity Capacidade da fila de cada shard
+	 * @param handlers      Cria o handler de cada shard
+	 * @param shedder       Controle de admissão aplicado no {@link #submit} (null para desativar)
+	 */
+	public ShardedPipeline(SpecCodec codec, int shardCount, int queueCapacity, Supplier<ShardHandler> handlers,
+						   LoadShedder shedder) {
+		if (shardCount <= 0) {
+			throw new IllegalArgumentException("shardCount must be positive");
+		}
+		this.codec = Objects.requireNonNull(codec, "codec cannot be null");
+		this.shedder = shedder;
+		this.shards = new Shard[shardCount];
+		for (int i = 0; i < shardCount; i++) {
+			shards[i] = new Shard(i, new MpscRingBuffer<>(queueCapacity), handlers.get());
+		}
+		for (Shard shard : shards) {
+			shard.thread.start();
+		}
+	}
+
+	/**
+	 * Envia o frame ao shard do seu terminal
+	 *
+	 * @param frame Mensagem recebida; não deve ser alterada depois do envio
+	 * @param reply Destino da resposta (ex: {@code writer::send}), chamado na thread do shard, ou na thread
+	 *              atual para a recusa do controle de admissão
+	 * @return false se a fila do shard estiver cheia
+	 */
+	public boolean submit(byte[] frame, Consumer<byte[]> reply) {
+		IsoFrame indexed = frames.get();
+		boolean valid = codec.tryIndex(frame, 0, frame.length, indexed);
+		if (shedder != null && !shedder.tryAdmit()) {
+			reply(reply, valid ? shedder.decline(indexed) : null);
+			return true;
+		}
+		return enqueue(valid ? shardOf(indexed) : 0, frame, reply);
+	}
+
+	/**
+	 * Envia uma mensagem já indexada (ex: entregue pelo {@code StreamingDecoder}), copiando seus bytes
+	 *
+	 * @return false se a fila do shard estiver cheia
+	 */
+	public boolean submit(IsoFrame frame, Consumer<byte[]> reply) {
+		if (shedder != null && !shedder.tryAdmit()) {
+			reply(reply, shedder.decline(frame));
+			return true;
+		}
+		byte[] copy = Arrays.copyOfRange(frame.buffer(), frame.offset(), frame.offset() + frame.length());
+		return enqueue(shardOf(frame), copy, reply);
+	}
+
+	/**
+	 * Shard responsável pelo terminal da mensagem
+	 */
+	public int shardOf(IsoFrame frame) {
+		if (!frame.has(TERMINAL_ID)) {
+			return 0;
+		}
+		long h = HashUtils.mix(HashUtils.hash(frame.buffer(), frame.start(TERMINAL_ID), frame.end(TERMINAL_ID),
+			HashUtils.FNV_OFFSET));
+		// Multiplicação em vez de módulo: distribui bem com qualquer quantidade de shards
+		return (int) (((h >>> 32) * shards.length) >>> 32);
+	}
+
+	public int shardCount() {
+		return shards.length;
+	}
+
+	/**
+	 * Mensagens aguardando na fila do shard
+	 */
+	public int queueDepth(int shard) {
+		return shards[shard].queue.size();
+	}
+
+	public long processed() {
+		return processed.sum();
+	}
+
+	/**
+	 * Mensagens recusadas por fila cheia
+	 */
+	public long rejected() {
+		return rejected.sum();
+	}
+
+	/**
+	 * Mensagens em que o handler lançou exceção
+	 */
+	public long failures() {
+		return failures.sum();
+	}
+
+	/**
+	 * Para de aceitar mensagens, processa o que já estava nas filas e encerra as threads
+	 */
+	@Override
+	public void close() {
+		running = false;
+		for (Shard shard : shards) {
+			LockSupport.unpark(shard.thread);
+		}
+		for (Shard shard : shards) {
+			try {
+				shard.thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Enfileira a requisição; com controle de admissão, ela já tem uma vaga reservada
+	 */
+	private boolean enqueue(int index, byte[] frame, Consumer<byte[]> reply) {
+		Shard shard = shards[index];
+		long admitted = shedder != null ? System.nanoTime() : 0;
+		// A thread do shard só encerra sem envios em andamento, então o que passou por running é processado
+		shard.submitting.incrementAndGet();
+		try {
+			if (!running || !shard.queue.offer(new Task(frame, reply, admitted))) {
+				if (shedder != null) {
+					shedder.abandon();
+				}
+				rejected.increment();
+				return false;
+			}
+		} finally {
+			shard.submitting.decrementAndGet();
+		}
+		if (shard.parked) {
+			LockSupport.unpark(shard.thread);
+		}
+		return true;
+	}
+
+	private static void reply(Consumer<byte[]> reply, byte[] response) {
+		if (response != null && reply != null) {
+			reply.accept(response);
+		}
+	}
+
+	/**
+	 * @param admitted {@link System#nanoTime()} da admissão, usado pelo controle de admissão
+	 */
+	private record Task(byte[] frame, Consumer<byte[]> reply, long admitted) {
+	}
+
+	private final class Shard implements Runnable {
+		private final MpscRingBuffer<Task> queue;
+		private final ShardHandler handler;
+		private final Thread thread;
+		private final AtomicInteger submitting = new AtomicInteger();
+		private volatile boolean parked;
+
+		private Shard(int index, MpscRingBuffer<Task> queue, ShardHandler handler) {
+			this.queue = queue;
+			this.handler = Objects.requireNonNull(handler, "handler cannot be null");
+			this.thread = new Thread(this, "iso8583-shard-" + index);
+		}
+
+		@Override
+		public void run() {
+			int idle = 0;
+			while (true) {
+				Task task = queue.poll();
+				if (task == null) {
+					if (!running && submitting.get() == 0 && queue.size() == 0) {
+						return;
+					}
+					idle = idle(idle);
+					continue;
+				}
+				idle = 0;
+				try {
+					reply(task.reply(), handler.process(task.frame()));
+					processed.increment();
+				} catch (RuntimeException e) {
+					failures.increment();
+				} finally {
+					// A vaga é devolvida depois do envio da resposta, com ou sem resposta ou erro
+					if (shedder != null) {
+						shedder.complete(task.admitted());
+					}
+				}
+			}
+		}
+
+		/**
+		 * Espera ativa curta e, depois, estaciona a thread até chegar mensagem (ou o timeout, que cobre
+		 * um unpark perdido entre a verificação da fila e o park)
+		 */
+		private int idle(int idle) {
+			if (idle < SPINS_BEFORE_PARK) {
+				Thread.onSpinWait();
+				return idle + 1;
+			}
+			parked = true;
+			if (queue.size() == 0 && running) {
+				LockSupport.parkNanos(this, PARK_NANOS);
+			}
+			parked = false;
+			return idle;
+		}
+	}
+}
@@ -0,0 +1,210 @@
+package com.example.iso8583.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Tabela imutável de roteamento por faixa de BIN (prefixo do PAN, campo 2).
+ * <p>
+ * As faixas podem ter de 6 a 11 dígitos e se sobrepor; na construção todas são normalizadas para
+ * 11 dígitos e achatadas em intervalos disjuntos ordenados, onde a faixa mais específica (menor)
+ * vence. A consulta é uma busca binária em um {@code long[]}, lendo os dígitos direto do buffer.
+ *
+ * @param <T> Tipo do destino (ex: nome da rede, conexão)
+ */
+public final class BinRoutingTable<T> {
+
+	/**
+	 * Quantidade de dígitos do PAN considerada no roteamento
+	 */
+	public static final int KEY_DIGITS = 11;
+
+	private static final long[] POWERS_OF_TEN = {
+		1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+		1_000_000_000L, 10_000_000_000L, 100_000_000_000L
+	};
+
+	private final long[] lows;
+	private final long[] highs;
+	private final Object[] destinations;
+
+	private BinRoutingTable(long[] lows, long[] highs, Object[] destinations) {
+		this.lows = lows;
+		this.highs = highs;
+		this.destinations = destinations;
+	}
+
+	public static <T> Builder<T> builder() {
+		return new Builder<>();
+	}
+
+	/**
+	 * Quantidade de intervalos disjuntos após a normalização
+	 */
+	public int size() {
+		return lows.length;
+	}
+
+	/**
+	 * Destino do PAN contido no trecho do buffer (dígitos ASCII), ou null se nenhuma faixa cobrir
+	 *
+	 * @param data  Buffer com a mensagem
+	 * @param start Posição do primeiro dígito do PAN
+	 * @param end   Posição final (exclusiva) do PAN
+	 */
+	@SuppressWarnings("unchecked")
+	public T lookup(byte[] data, int start, int end) {
+		int digits = Math.min(end - start, KEY_DIGITS);
+		long key = 0;
+		for (int i = start; i < start + digits; i++) {
+			int digit = data[i] - '0';
+			if (digit < 0 || digit > 9) {
+				return null;
+			}
+			key = key * 10 + digit;
+		}
+		return (T) find(key * POWERS_OF_TEN[KEY_DIGITS - digits]);
+	}
+
+	/**
+	 * Destino do PAN, ou null se nenhuma faixa cobrir
+	 */
+	@SuppressWarnings("unchecked")
+	public T lookup(CharSequence pan) {
+		int digits = Math.min(pan.length(), KEY_DIGITS);
+		long key = 0;
+		for (int i = 0; i < digits; i++) {
+			int digit = pan.charAt(i) - '0';
+			if (digit < 0 || digit > 9) {
+				return null;
+			}
+			key = key * 10 + digit;
+		}
+		return (T) find(key * POWERS_OF_TEN[KEY_DIGITS - digits]);
+	}
+
+	private Object find(long key) {
+		int index = Arrays.binarySearch(lows, key);
+		if (index < 0) {
+			index = -index - 2; // maior início <= chave
+		}
+		return index >= 0 && key <= highs[index] ? destinations[index] : null;
+	}
+
+	/**
+	 * Acumula faixas e gera a tabela normalizada
+	 */
+	public static final class Builder<T> {
+		private final List<long[]> ranges = new ArrayList<>();
+		private final List<T> targets = new ArrayList<>();
+
+		private Builder() {
+		}
+
+		/**
+		 * Adiciona um prefixo (6 a 11 dígitos), ex: "411111"
+		 */
+		public Builder<T> prefix(String prefix, T destination) {
+			return range(prefix, prefix, destination);
+		}
+
+		/**
+		 * Adiciona uma faixa de prefixos de mesmo comprimento, inclusiva nas duas pontas,
+		 * ex: "40000000" a "40999999"
+		 */
+		public Builder<T> range(String low, String high, T destination) {
+			Objects.requireNonNull(destination, "Destination cannot be null");
+			long lowKey = normalize(low, '0');
+			long highKey = normalize(high, '9');
+			if (lowKey > highKey) {
+				throw new IllegalArgumentException("Invalid BIN range: " + low + " > " + high);
+			}
+			ranges.add(new long[]{lowKey, highKey});
+			targets.add(destination);
+			return this;
+		}
+
+		private static long normalize(String bin, char fill) {
+			if (bin == null || bin.length() < 6 || bin.length() > KEY_DIGITS) {
+				throw new IllegalArgumentException("BIN must have 6 to " + KEY_DIGITS + " digits: " + bin);
+			}
+			long key = 0;
+			for (int i = 0; i < KEY_DIGITS; i++) {
+				char c = i < bin.length() ? bin.charAt(i) : fill;
+				if (c < '0' || c > '9') {
+					throw new IllegalArgumentException("BIN must contain only digits: " + bin);
+				}
+				key = key * 10 + (c - '0');
+			}
+			return key;
+		}
+
+		/**
+		 * Achata as faixas em intervalos disjuntos: em cada trecho vence a faixa de menor amplitude
+		 * e, no empate, a adicionada por último
+		 */
+		public BinRoutingTable<T> build() {
+			int n = ranges.size();
+			long[] points = new long[n * 2];
+			Integer[] byLow = new Integer[n];
+			Integer[] byHigh = new Integer[n];
+			for (int i = 0; i < n; i++) {
+				points[i * 2] = ranges.get(i)[0];
+				points[i * 2 + 1] = ranges.get(i)[1] + 1;
+				byLow[i] = i;
+				byHigh[i] = i;
+			}
+			Arrays.sort(points);
+			Arrays.sort(byLow, Comparator.comparingLong(i -> ranges.get(i)[0]));
+			Arrays.sort(byHigh, Comparator.comparingLong(i -> ranges.get(i)[1]));
+
+			TreeSet<Integer> active = new TreeSet<>(Comparator
+				.comparingLong((Integer i) -> ranges.get(i)[1] - ranges.get(i)[0])
+				.thenComparing(Comparator.reverseOrder()));
+
+			long[] lows = new long[n * 2];
+			long[] highs = new long[n * 2];
+			Object[] destinations = new Object[n * 2];
+			int count = 0;
+			int nextLow = 0;
+			int nextHigh = 0;
+
+			for (int k = 0; k < points.length - 1; k++) {
+				long point = points[k];
+				if (point == points[k + 1]) {
+					continue;
+				}
+				while (nextLow < n && ranges.get(byLow[nextLow])[0] <= point) {
+					active.add(byLow[nextLow++]);
+				}
+				while (nextHigh < n && ranges.get(byHigh[nextHigh])[1] < point) {
+					active.remove(byHigh[nextHigh++]);
+				}
+				if (active.isEmpty()) {
+					continue;
+				}
+
+				T destination = targets.get(active.first());
+				long end = points[k + 1] - 1;
+				if (count > 0 && highs[count - 1] == point - 1 && destinations[count - 1].equals(destination)) {
+					highs[count - 1] = end;
+				} else {
+					lows[count] = point;
+					highs[count] = end;
+					destinations[count] = destination;
+					count++;
+				}
+			}
+
+			return new BinRoutingTable<>(
+				Arrays.copyOf(lows, count),
+				Arrays.copyOf(highs, count),
+				Arrays.copyOf(destinations, count)
+			);
+		}
+	}
+}
@@ -0,0 +1,256 @@
+package com.example.iso8583.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Lote de mensagens decodificadas em colunas: um array primitivo por campo projetado, sem objeto por
+ * mensagem. Preenchido por {@code ColumnarDecoder}.
+ * <p>
+ * - Colunas numéricas (valores, datas, horas, NUMERIC de até 18 dígitos): {@code long[]} com os dígitos
+ * do campo como número (ex: DATE10 "1019123456" → 1019123456).
+ * - Demais colunas: posição e tamanho de cada valor em um único buffer de bytes compartilhado
+ * ({@link #arena()}), em ASCII como na mensagem.
+ * <p>
+ * Cada mensagem é uma linha, na ordem em que foi adicionada; mensagens malformadas viram linhas inválidas
+ * com todos os campos ausentes. Os arrays crescem conforme necessário; use só as primeiras {@link #rows()}
+ * posições.
+ */
+public final class ColumnBatch {
+
+	private final int[] fields;
+	private final int[] columnOf = new int[129];
+	private final boolean[] numeric;
+	private final long[][] longs;
+	private final int[][] offsets;
+	private final int[][] lengths;
+	private final long[][] present;
+	private long[] valid;
+	private byte[] arena;
+	private int arenaSize;
+	private int rows;
+	private int capacity;
+
+	/**
+	 * @param fields   Campos projetados
+	 * @param numeric  Se cada campo é uma coluna numérica
+	 * @param capacity Linhas reservadas inicialmente
+	 */
+	public ColumnBatch(int[] fields, boolean[] numeric, int capacity) {
+		if (fields.length != numeric.length) {
+			throw new IllegalArgumentException("fields and numeric must have the same length");
+		}
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity must be positive");
+		}
+		this.fields = fields.clone();
+		this.numeric = numeric.clone();
+		this.capacity = capacity;
+		Arrays.fill(columnOf, -1);
+		this.longs = new long[fields.length][];
+		this.offsets = new int[fields.length][];
+		this.lengths = new int[fields.length][];
+		this.present = new long[fields.length][];
+		for (int c = 0; c < fields.length; c++) {
+			if (fields[c] < 2 || fields[c] > 128 || columnOf[fields[c]] >= 0) {
+				throw new IllegalArgumentException("Invalid or repeated field: " + fields[c]);
+			}
+			columnOf[fields[c]] = c;
+			if (numeric[c]) {
+				longs[c] = new long[capacity];
+			} else {
+				offsets[c] = new int[capacity];
+				lengths[c] = new int[capacity];
+			}
+			present[c] = new long[words(capacity)];
+		}
+		this.valid = new long[words(capacity)];
+		this.arena = new byte[capacity * 16];
+	}
+
+	/**
+	 * Quantidade de linhas
+	 */
+	public int rows() {
+		return rows;
+	}
+
+	/**
+	 * Campos projetados, na ordem das colunas
+	 */
+	public int[] fields() {
+		return fields.clone();
+	}
+
+	/**
+	 * Indica se o campo é uma coluna numérica ({@link #longs}) ou de bytes ({@link #offsets}/{@link #lengths})
+	 */
+	public boolean isNumeric(int fieldNumber) {
+		return numeric[column(fieldNumber)];
+	}
+
+	/**
+	 * Indica se a mensagem da linha foi decodificada
+	 */
+	public boolean isValid(int row) {
+		return get(valid, row);
+	}
+
+	/**
+	 * Indica se o campo estava presente na linha
+	 */
+	public boolean isPresent(int fieldNumber, int row) {
+		return get(present[column(fieldNumber)], row);
+	}
+
+	/**
+	 * Coluna numérica do campo
+	 */
+	public long[] longs(int fieldNumber) {
+		return requireKind(fieldNumber, true).longs[column(fieldNumber)];
+	}
+
+	/**
+	 * Posição de cada valor do campo em {@link #arena()}
+	 */
+	public int[] offsets(int fieldNumber) {
+		return requireKind(fieldNumber, false).offsets[column(fieldNumber)];
+	}
+
+	/**
+	 * Tamanho de cada valor do campo em {@link #arena()}
+	 */
+	public int[] lengths(int fieldNumber) {
+		return requireKind(fieldNumber, false).lengths[column(fieldNumber)];
+	}
+
+	/**
+	 * Buffer compartilhado com os valores das colunas de bytes
+	 */
+	public byte[] arena() {
+		return arena;
+	}
+
+	/**
+	 * Bytes usados em {@link #arena()}
+	 */
+	public int arenaSize() {
+		return arenaSize;
+	}
+
+	/**
+	 * Valor numérico do campo na linha
+	 */
+	public long getLong(int fieldNumber, int row) {
+		return longs(fieldNumber)[row];
+	}
+
+	/**
+	 * Valor do campo na linha como String, ou null se ausente. Aloca; use fora do caminho quente.
+	 */
+	public String getString(int fieldNumber, int row) {
+		if (!isPresent(fieldNumber, row)) {
+			return null;
+		}
+		int c = column(fieldNumber);
+		if (numeric[c]) {
+			return Long.toString(longs[c][row]);
+		}
+		return new String(arena, offsets[c][row], lengths[c][row], StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Descarta as linhas, mantendo os arrays para o próximo lote
+	 */
+	public void clear() {
+		for (long[] words : present) {
+			Arrays.fill(words, 0, words(rows), 0);
+		}
+		Arrays.fill(valid, 0, words(rows), 0);
+		rows = 0;
+		arenaSize = 0;
+	}
+
+	/**
+	 * Acrescenta uma linha com todos os campos ausentes
+	 *
+	 * @return o índice da linha
+	 */
+	public int addRow(boolean rowValid) {
+		if (rows == capacity) {
+			grow();
+		}
+		if (rowValid) {
+			set(valid, rows);
+		}
+		return rows++;
+	}
+
+	/**
+	 * Define um valor numérico na linha
+	 */
+	public void setLong(int column, int row, long value) {
+		longs[column][row] = value;
+		set(present[column], row);
+	}
+
+	/**
+	 * Copia um valor para a arena e o associa à linha
+	 */
+	public void setBytes(int column, int row, byte[] data, int start, int end) {
+		int length = end - start;
+		if (arenaSize + length > arena.length) {
+			arena = Arrays.copyOf(arena, Math.max(arenaSize + length, arena.length * 2));
+		}
+		System.arraycopy(data, start, arena, arenaSize, length);
+		offsets[column][row] = arenaSize;
+		lengths[column][row] = length;
+		arenaSize += length;
+		set(present[column], row);
+	}
+
+	/**
+	 * Índice da coluna do campo
+	 */
+	public int column(int fieldNumber) {
+		int column = fieldNumber >= 0 && fieldNumber <= 128 ? columnOf[fieldNumber] : -1;
+		if (column < 0) {
+			throw new IllegalArgumentException("Field " + fieldNumber + " is not projected");
+		}
+		return column;
+	}
+
+	private ColumnBatch requireKind(int fieldNumber, boolean expectNumeric) {
+		if (numeric[column(fieldNumber)] != expectNumeric) {
+			throw new IllegalArgumentException("Field " + fieldNumber + " is not a "
+				+ (expectNumeric ? "numeric" : "byte") + " column");
+		}
+		return this;
+	}
+
+	private void grow() {
+		capacity *= 2;
+		for (int c = 0; c < fields.length; c++) {
+			if (numeric[c]) {
+				longs[c] = Arrays.copyOf(longs[c], capacity);
+			} else {
+				offsets[c] = Arrays.copyOf(offsets[c], capacity);
+				lengths[c] = Arrays.copyOf(lengths[c], capacity);
+			}
+			present[c] = Arrays.copyOf(present[c], words(capacity));
+		}
+		valid = Arrays.copyOf(valid, words(capacity));
+	}
+
+	private static int words(int bits) {
+		return (bits + 63) >>> 6;
+	}
+
+	private static boolean get(long[] words, int index) {
+		return (words[index >>> 6] & (1L << index)) != 0;
+	}
+
+	private static void set(long[] words, int index) {
+		words[index >>> 6] |= 1L << index;
+	}
+}
@@ -0,0 +1,55 @@
+package com.example.iso8583.domain;
+
+import com.example.iso8583.enums.DecodeError;
+
+/**
+ * Resultado de uma decodificação que não lança exceção: a mensagem, ou o motivo da falha com o
+ * campo e a posição onde ocorreu. A exceção só é criada em {@link #orThrow()}, na borda da API.
+ *
+ * @param message Mensagem decodificada (null em caso de falha)
+ * @param error   Motivo da falha (null em caso de sucesso)
+ * @param field   Campo onde a falha ocorreu (0 para MTI/bitmap)
+ * @param offset  Posição na mensagem onde a falha ocorreu
+ */
+public record DecodeOutcome(IsoMessage message, DecodeError error, int field, int offset) {
+
+	public static DecodeOutcome success(IsoMessage message) {
+		return new DecodeOutcome(message, null, 0, 0);
+	}
+
+	public static DecodeOutcome failure(DecodeError error, int field, int offset) {
+		return new DecodeOutcome(null, error, field, offset);
+	}
+
+	public boolean isSuccess() {
+		return error == null;
+	}
+
+	/**
+	 * Retorna a mensagem ou lança a exceção correspondente à falha
+	 *
+	 * @throws IllegalStateException    se faltar template para um campo do bitmap
+	 * @throws IllegalArgumentException para as demais falhas
+	 */
+	public IsoMessage orThrow() {
+		if (error == null) {
+			return message;
+		}
+		if (error == DecodeError.MISSING_TEMPLATE) {
+			throw new IllegalStateException(describe());
+		}
+		throw new IllegalArgumentException(describe());
+	}
+
+	/**
+	 * Descrição legível da falha, ex: "Invalid content (field 4, position 36)"
+	 */
+	public String describe() {
+		if (error == null) {
+			return "OK";
+		}
+		return field > 0
+			? error.getDescription() + " (field " + field + ", position " + offset + ")"
+			: error.getDescription() + " (position " + offset + ")";
+	}
+}
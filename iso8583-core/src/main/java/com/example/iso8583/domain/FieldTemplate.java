@@ -1,6 +1,22 @@
 package com.example.iso8583.domain;
 
 import com.example.iso8583.enums.IsoType;
+import com.example.iso8583.enums.TlvFormat;
 
-public record FieldTemplate(IsoType type, int length) {
+/**
+ * @param type       Tipo do campo ISO 8583
+ * @param length     Comprimento declarado (0 quando não aplicável)
+ * @param tlvFormat  Formato dos subcampos quando o campo é composto, ou null
+ * @param locateOnly Campo não convertido em valor: o decoder só registra a posição do conteúdo, ver
+ *                   {@link com.example.iso8583.service.IsoDecoder#tryDecodeWithTemplate(String, java.util.Map, int[])}
+ */
+public record FieldTemplate(IsoType type, int length, TlvFormat tlvFormat, boolean locateOnly) {
+
+	public FieldTemplate(IsoType type, int length) {
+		this(type, length, null, false);
+	}
+
+	public FieldTemplate(IsoType type, int length, TlvFormat tlvFormat) {
+		this(type, length, tlvFormat, false);
+	}
 }
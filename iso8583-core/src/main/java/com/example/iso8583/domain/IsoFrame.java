@@ -0,0 +1,152 @@
+package com.example.iso8583.domain;
+
+import com.example.iso8583.enums.DecodeError;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Índice de uma mensagem ISO 8583 recebida em bytes ASCII: guarda apenas onde cada campo começa e
+ * termina no buffer original, sem converter nenhum valor.
+ * <p>
+ * Pensado para ser reutilizado: uma instância por thread/conexão, reindexada a cada mensagem,
+ * sem alocação no caminho quente. Preenchido por {@code SpecCodec.index}.
+ */
+public final class IsoFrame {
+
+	private final int[] starts = new int[129];
+	private final int[] ends = new int[129];
+	private byte[] buffer;
+	private int offset;
+	private int length;
+	private long primaryBitmap;
+	private long secondaryBitmap;
+	private DecodeError error;
+	private int errorField;
+	private int errorOffset;
+
+	/**
+	 * Associa o frame a uma nova mensagem, descartando os campos anteriores
+	 */
+	public void wrap(byte[] buffer, int offset, int length, long primaryBitmap, long secondaryBitmap) {
+		this.buffer = buffer;
+		this.offset = offset;
+		this.length = length;
+		this.primaryBitmap = primaryBitmap;
+		this.secondaryBitmap = secondaryBitmap;
+		this.error = null;
+	}
+
+	/**
+	 * Registra a falha de indexação, sem lançar exceção
+	 *
+	 * @return sempre false, para uso direto em {@code return frame.fail(...)}
+	 */
+	public boolean fail(DecodeError error, int fieldNumber, int offset) {
+		this.error = error;
+		this.errorField = fieldNumber;
+		this.errorOffset = offset;
+		return false;
+	}
+
+	/**
+	 * Motivo da última falha de indexação, ou null se a mensagem foi indexada
+	 */
+	public DecodeError error() {
+		return error;
+	}
+
+	/**
+	 * Campo onde a última falha ocorreu (0 para MTI/bitmap)
+	 */
+	public int errorField() {
+		return errorField;
+	}
+
+	/**
+	 * Posição no buffer onde a última falha ocorreu
+	 */
+	public int errorOffset() {
+		return errorOffset;
+	}
+
+	/**
+	 * Registra a posição do conteúdo de um campo (sem o indicador de comprimento)
+	 */
+	public void field(int fieldNumber, int start, int end) {
+		starts[fieldNumber] = start;
+		ends[fieldNumber] = end;
+	}
+
+	public byte[] buffer() {
+		return buffer;
+	}
+
+	/**
+	 * Posição da mensagem (MTI) no buffer
+	 */
+	public int offset() {
+		return offset;
+	}
+
+	/**
+	 * Tamanho total da mensagem no buffer
+	 */
+	public int length() {
+		return length;
+	}
+
+	/**
+	 * MTI como número (ex: 200 para "0200")
+	 */
+	public int mti() {
+		int mti = 0;
+		for (int i = offset; i < offset + 4; i++) {
+			mti = mti * 10 + (buffer[i] - '0');
+		}
+		return mti;
+	}
+
+	/**
+	 * Indica se o campo está presente no bitmap
+	 */
+	public boolean has(int fieldNumber) {
+		if (fieldNumber < 1 || fieldNumber > 128) {
+			return false;
+		}
+		return fieldNumber <= 64
+			? (primaryBitmap & (1L << (64 - fieldNumber))) != 0
+			: (secondaryBitmap & (1L << (128 - fieldNumber))) != 0;
+	}
+
+	/**
+	 * Posição inicial (inclusiva) do conteúdo do campo no buffer
+	 */
+	public int start(int fieldNumber) {
+		return starts[fieldNumber];
+	}
+
+	/**
+	 * Posição final (exclusiva) do conteúdo do campo no buffer
+	 */
+	public int end(int fieldNumber) {
+		return ends[fieldNumber];
+	}
+
+	/**
+	 * Tamanho do conteúdo do campo, ou -1 se ausente
+	 */
+	public int fieldLength(int fieldNumber) {
+		return has(fieldNumber) ? ends[fieldNumber] - starts[fieldNumber] : -1;
+	}
+
+	/**
+	 * Valor bruto do campo como String, ou null se ausente. Aloca; use fora do caminho quente.
+	 */
+	public String value(int fieldNumber) {
+		if (!has(fieldNumber)) {
+			return null;
+		}
+		return new String(buffer, starts[fieldNumber], ends[fieldNumber] - starts[fieldNumber],
+			StandardCharsets.ISO_8859_1);
+	}
+}
@@ -2,6 +2,7 @@ package com.example.iso8583.domain;
 
 
 import com.example.iso8583.enums.IsoType;
+import com.example.iso8583.utils.AsciiUtils;
 
 import java.util.BitSet;
 import java.util.Collections;
@@ -89,8 +90,8 @@ public class IsoMessage {
 	 * Valida a estrutura básica da mensagem
 	 */
 	public void validate() {
-		final var i = Integer.parseInt(mti);
-		if (i < 0 || i > 9999) {
+		// Sem Integer.parseInt: MTI inválido não gera NumberFormatException intermediária
+		if (mti == null || mti.isEmpty() || mti.length() > 4 || !AsciiUtils.isDigits(mti)) {
 			throw new IllegalStateException("Invalid MTI: " + mti);
 		}
 
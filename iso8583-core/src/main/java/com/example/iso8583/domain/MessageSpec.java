@@ -0,0 +1,66 @@
+package com.example.iso8583.domain;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Definição de campos de uma rede carregada de uma especificação externa (ex: XML).
+ * <p>
+ * Os templates ficam em um array indexado pelo número do campo, sem boxing nem lookup em mapa.
+ */
+public final class MessageSpec {
+
+	private final String name;
+	private final String hash;
+	private final FieldTemplate[] templates;
+
+	/**
+	 * @param name      Nome da especificação (rede/dialeto)
+	 * @param hash      SHA-256 do conteúdo original da especificação, em hexadecimal
+	 * @param templates Templates indexados pelo número do campo (posições 0 a 128)
+	 */
+	public MessageSpec(String name, String hash, FieldTemplate[] templates) {
+		Objects.requireNonNull(templates, "Templates cannot be null");
+		if (templates.length != 129) {
+			throw new IllegalArgumentException("Templates must be indexed from 0 to 128");
+		}
+		this.name = name;
+		this.hash = Objects.requireNonNull(hash, "Spec hash cannot be null");
+		this.templates = templates.clone();
+	}
+
+	public String name() {
+		return name;
+	}
+
+	public String hash() {
+		return hash;
+	}
+
+	/**
+	 * Retorna o template do campo ou null se o campo não está definido
+	 */
+	public FieldTemplate template(int fieldNumber) {
+		return fieldNumber > 0 && fieldNumber < templates.length ? templates[fieldNumber] : null;
+	}
+
+	/**
+	 * Retorna os templates definidos, em ordem crescente de campo
+	 */
+	public Map<Integer, FieldTemplate> fieldTemplates() {
+		Map<Integer, FieldTemplate> result = new LinkedHashMap<>();
+		for (int i = 2; i < templates.length; i++) {
+			if (templates[i] != null) {
+				result.put(i, templates[i]);
+			}
+		}
+		return Collections.unmodifiableMap(result);
+	}
+
+	@Override
+	public String toString() {
+		return "MessageSpec[" + name + ", " + hash + "]";
+	}
+}
@@ -0,0 +1,293 @@
+package com.example.iso8583.domain;
+
+import com.example.iso8583.enums.TlvFormat;
+import com.example.iso8583.utils.AsciiUtils;
+import com.example.iso8583.utils.FieldFormatter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Conteúdo de um campo composto por subcampos TLV (ex: DE 55 com dados EMV).
+ * <p>
+ * Mantém o conteúdo original da mensagem e só indexa as tags no primeiro acesso, uma única vez.
+ * O encoding reemite o conteúdo original sem alterações, byte a byte.
+ */
+public final class TlvData {
+
+	private final TlvFormat format;
+	private final String raw;
+	private volatile Index index;
+
+	private TlvData(TlvFormat format, String raw) {
+		this.format = format;
+		this.raw = raw;
+	}
+
+	/**
+	 * Cria a partir do conteúdo do campo (sem o indicador de comprimento)
+	 */
+	public static TlvData of(TlvFormat format, String raw) {
+		Objects.requireNonNull(format, "TLV format cannot be null");
+		Objects.requireNonNull(raw, "TLV content cannot be null");
+		return new TlvData(format, raw);
+	}
+
+	/**
+	 * Cria um builder para montar o campo a partir de subcampos
+	 */
+	public static Builder builder(TlvFormat format) {
+		return new Builder(format);
+	}
+
+	public TlvFormat format() {
+		return format;
+	}
+
+	/**
+	 * Conteúdo original do campo, exatamente como recebido
+	 */
+	public String raw() {
+		return raw;
+	}
+
+	/**
+	 * Indica se a tag está presente
+	 */
+	public boolean contains(String tag) {
+		return find(tag) >= 0;
+	}
+
+	/**
+	 * Retorna o valor da tag (hexadecimal em BER, texto em ASCII) ou null se ausente
+	 */
+	public String get(String tag) {
+		Index idx = index();
+		int i = find(tag);
+		return i < 0 ? null : raw.substring(idx.valueStarts[i], idx.valueEnds[i]);
+	}
+
+	/**
+	 * Retorna as tags presentes na ordem em que aparecem no campo
+	 */
+	public List<String> tags() {
+		Index idx = index();
+		List<String> tags = new ArrayList<>(idx.count);
+		for (int i = 0; i < idx.count; i++) {
+			tags.add(raw.substring(idx.tagStarts[i], idx.tagEnds[i]));
+		}
+		return Collections.unmodifiableList(tags);
+	}
+
+	/**
+	 * Quantidade de tags no campo
+	 */
+	public int size() {
+		return index().count;
+	}
+
+	private int find(String tag) {
+		Index idx = index();
+		int tagLength = tag.length();
+		for (int i = 0; i < idx.count; i++) {
+			if (idx.tagEnds[i] - idx.tagStarts[i] == tagLength
+				&& raw.regionMatches(true, idx.tagStarts[i], tag, 0, tagLength)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private Index index() {
+		Index idx = index;
+		if (idx == null) {
+			idx = format == TlvFormat.BER ? Index.parseBer(raw) : Index.parseAscii(raw);
+			index = idx;
+		}
+		return idx;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof TlvData other && format == other.format && raw.equals(other.raw);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * format.hashCode() + raw.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return raw;
+	}
+
+	/**
+	 * Posições das tags e valores dentro do conteúdo original
+	 */
+	private static final class Index {
+		private int[] tagStarts = new int[8];
+		private int[] tagEnds = new int[8];
+		private int[] valueStarts = new int[8];
+		private int[] valueEnds = new int[8];
+		private int count;
+
+		private void add(int tagStart, int tagEnd, int valueStart, int valueEnd) {
+			if (count == tagStarts.length) {
+				int newSize = count * 2;
+				tagStarts = Arrays.copyOf(tagStarts, newSize);
+				tagEnds = Arrays.copyOf(tagEnds, newSize);
+				valueStarts = Arrays.copyOf(valueStarts, newSize);
+				valueEnds = Arrays.copyOf(valueEnds, newSize);
+			}
+			tagStarts[count] = tagStart;
+			tagEnds[count] = tagEnd;
+			valueStarts[count] = valueStart;
+			valueEnds[count] = valueEnd;
+			count++;
+		}
+
+		/**
+		 * Indexa BER-TLV em hexadecimal (tags de múltiplos bytes e comprimentos longos)
+		 */
+		private static Index parseBer(String raw) {
+			if (!AsciiUtils.isHex(raw, 0, raw.length())) {
+				throw new IllegalArgumentException("Invalid hex character in BER-TLV data");
+			}
+
+			Index idx = new Index();
+			int pos = 0;
+			int end = raw.length();
+
+			while (pos < end) {
+				int b = hexByte(raw, pos);
+
+				// Bytes de preenchimento entre objetos TLV (EMV Book 3)
+				if (b == 0x00 || b == 0xFF) {
+					pos += 2;
+					continue;
+				}
+
+				int tagStart = pos;
+				pos += 2;
+				if ((b & 0x1F) == 0x1F) {
+					do {
+						b = hexByte(raw, pos);
+						pos += 2;
+					} while ((b & 0x80) != 0);
+				}
+				int tagEnd = pos;
+
+				int length = hexByte(raw, pos);
+				pos += 2;
+				if ((length & 0x80) != 0) {
+					int lengthBytes = length & 0x7F;
+					if (lengthBytes == 0 || lengthBytes > 3) {
+						throw new IllegalArgumentException("Invalid BER-TLV length at position " + (pos - 2));
+					}
+					length = 0;
+					for (int i = 0; i < lengthBytes; i++) {
+						length = (length << 8) | hexByte(raw, pos);
+						pos += 2;
+					}
+				}
+
+				int valueEnd = pos + length * 2;
+				if (valueEnd > end) {
+					throw new IllegalArgumentException("Truncated BER-TLV value for tag at position " + tagStart);
+				}
+
+				idx.add(tagStart, tagEnd, pos, valueEnd);
+				pos = valueEnd;
+			}
+			return idx;
+		}
+
+		/**
+		 * Indexa subcampos no formato tag (2 caracteres) + comprimento (2 dígitos) + valor
+		 */
+		private static Index parseAscii(String raw) {
+			Index idx = new Index();
+			int pos = 0;
+			int end = raw.length();
+
+			while (pos < end) {
+				int length = FieldFormatter.parseLengthIndicator(raw, pos + 2, 2);
+				if (length < 0 || pos + 4 + length > end) {
+					throw new IllegalArgumentException("Invalid TLV subfield at position " + pos);
+				}
+				idx.add(pos, pos + 2, pos + 4, pos + 4 + length);
+				pos += 4 + length;
+			}
+			return idx;
+		}
+
+		private static int hexByte(String raw, int pos) {
+			if (pos + 2 > raw.length()) {
+				throw new IllegalArgumentException("Truncated BER-TLV data at position " + pos);
+			}
+			int high = AsciiUtils.hexDigit(raw.charAt(pos));
+			int low = AsciiUtils.hexDigit(raw.charAt(pos + 1));
+			if (high < 0 || low < 0) {
+				throw new IllegalArgumentException("Invalid hex character in BER-TLV data at position " + pos);
+			}
+			return (high << 4) | low;
+		}
+	}
+
+	/**
+	 * Monta um campo TLV a partir de subcampos, na ordem de inserção
+	 */
+	public static final class Builder {
+		private final TlvFormat format;
+		private final StringBuilder raw = new StringBuilder();
+
+		private Builder(TlvFormat format) {
+			this.format = Objects.requireNonNull(format, "TLV format cannot be null");
+		}
+
+		/**
+		 * Adiciona um subcampo; valores nulos são ignorados
+		 *
+		 * @throws IllegalArgumentException se o valor BER não for hexadecimal de tamanho par
+		 */
+		public Builder put(String tag, String value) {
+			if (value == null) {
+				return this;
+			}
+
+			if (format == TlvFormat.BER) {
+				if (value.length() % 2 != 0 || !AsciiUtils.isHex(value, 0, value.length())) {
+					throw new IllegalArgumentException("BER-TLV subfield " + tag
+						+ " must be hex with an even length: " + value);
+				}
+				int length = value.length() / 2;
+				raw.append(tag.toUpperCase());
+				if (length > 0xFF) {
+					raw.append(String.format("82%04X", length));
+				} else if (length > 0x7F) {
+					raw.append(String.format("81%02X", length));
+				} else {
+					raw.append(String.format("%02X", length));
+				}
+				raw.append(value);
+			} else {
+				if (tag.length() != 2 || value.length() > 99) {
+					throw new IllegalArgumentException("Invalid ASCII TLV subfield " + tag);
+				}
+				raw.append(tag).append(String.format("%02d", value.length())).append(value);
+			}
+			return this;
+		}
+
+		/**
+		 * Retorna o campo montado, ou null se nenhum subcampo foi informado
+		 */
+		public TlvData build() {
+			return raw.isEmpty() ? null : new TlvData(format, raw.toString());
+		}
+	}
+}
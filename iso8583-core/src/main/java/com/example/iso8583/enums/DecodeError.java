@@ -0,0 +1,61 @@
+package com.example.iso8583.enums;
+
+/**
+ * Motivos de falha ao decodificar uma mensagem, reportados sem lançar exceção.
+ */
+public enum DecodeError {
+	/**
+	 * Mensagem menor que MTI + bitmap
+	 */
+	MESSAGE_TOO_SHORT("Message too short"),
+
+	/**
+	 * MTI com caracteres não numéricos
+	 */
+	INVALID_MTI("Invalid MTI"),
+
+	/**
+	 * Bitmap com caracteres não hexadecimais
+	 */
+	INVALID_BITMAP("Invalid bitmap"),
+
+	/**
+	 * Campo presente no bitmap sem template na especificação
+	 */
+	MISSING_TEMPLATE("No template found for field"),
+
+	/**
+	 * Indicador de comprimento de campo variável com caracteres não numéricos
+	 */
+	INVALID_LENGTH_INDICATOR("Invalid length indicator"),
+
+	/**
+	 * Campo ultrapassa o fim da mensagem
+	 */
+	FIELD_TRUNCATED("Message too short for field"),
+
+	/**
+	 * Mensagem maior que o limite aceito (fluxo provavelmente corrompido)
+	 */
+	MESSAGE_TOO_LONG("Message exceeds maximum length"),
+
+	/**
+	 * Bytes sobrando após o último campo do bitmap
+	 */
+	TRAILING_DATA("Unexpected data after last field"),
+
+	/**
+	 * Conteúdo incompatível com o tipo do campo (ex: letras em campo numérico, hexadecimal inválido)
+	 */
+	INVALID_CONTENT("Invalid content");
+
+	private final String description;
+
+	DecodeError(String description) {
+		this.description = description;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+}
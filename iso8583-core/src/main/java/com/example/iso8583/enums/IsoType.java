@@ -130,6 +130,17 @@ public enum IsoType {
 		};
 	}
 
+	/**
+	 * Retorna quantos caracteres da mensagem cada unidade de comprimento ocupa.
+	 * Campos binários são transmitidos em hexadecimal e seu comprimento é contado em bytes.
+	 */
+	public int getCharsPerUnit() {
+		return switch (this) {
+			case BINARY, LLBIN, LLLBIN, LLLLBIN -> 2;
+			default -> 1;
+		};
+	}
+
 	/**
 	 * Retorna o comprimento fixo
 	 */
@@ -0,0 +1,17 @@
+package com.example.iso8583.enums;
+
+/**
+ * Métodos de padding da ISO 9797-1 para completar o último bloco do MAC.
+ */
+public enum MacPadding {
+	/**
+	 * Método 1: completa com zeros (nada é acrescentado se o tamanho já for múltiplo do bloco), como na
+	 * ANSI X9.19
+	 */
+	METHOD_1,
+
+	/**
+	 * Método 2: acrescenta 0x80 e completa com zeros
+	 */
+	METHOD_2
+}
@@ -0,0 +1,54 @@
+package com.example.iso8583.enums;
+
+/**
+ * Classe de tráfego derivada do MTI, usada para priorizar o processamento sob sobrecarga.
+ */
+public enum MessageClass {
+	/**
+	 * Gerenciamento de rede (08xx): echo test, sign-on, troca de chaves
+	 */
+	NETWORK_MANAGEMENT,
+
+	/**
+	 * Estornos (04xx)
+	 */
+	REVERSAL,
+
+	/**
+	 * Avisos (xx2x/xx3x): transações já autorizadas que só precisam ser registradas
+	 */
+	ADVICE,
+
+	/**
+	 * Autorizações e financeiras (demais MTIs)
+	 */
+	AUTHORIZATION;
+
+	/**
+	 * Classe do MTI no formato texto (ex: "0800"); MTIs inválidos contam como autorização
+	 */
+	public static MessageClass of(CharSequence mti) {
+		if (mti == null || mti.length() != 4) {
+			return AUTHORIZATION;
+		}
+		return of((mti.charAt(1) - '0') * 100 + (mti.charAt(2) - '0') * 10);
+	}
+
+	/**
+	 * Classe do MTI numérico (ex: 800, como em {@code IsoFrame.mti()})
+	 */
+	public static MessageClass of(int mti) {
+		int messageClass = mti / 100 % 10;
+		int function = mti / 10 % 10;
+		if (messageClass == 8) {
+			return NETWORK_MANAGEMENT;
+		}
+		if (messageClass == 4) {
+			return REVERSAL;
+		}
+		if (function == 2 || function == 3) {
+			return ADVICE;
+		}
+		return AUTHORIZATION;
+	}
+}
@@ -0,0 +1,16 @@
+package com.example.iso8583.enums;
+
+/**
+ * Formatos de subcampos TLV suportados dentro de campos compostos (ex: DE 48, 55 e 62).
+ */
+public enum TlvFormat {
+	/**
+	 * BER-TLV (EMV) codificado em hexadecimal, usado em campos binários como o DE 55
+	 */
+	BER,
+
+	/**
+	 * Tag de 2 caracteres + comprimento de 2 dígitos + valor, usado em campos privados LLLVAR
+	 */
+	ASCII
+}
@@ -0,0 +1,67 @@
+package com.example.iso8583.service;
+
+import com.example.iso8583.domain.BinRoutingTable;
+import com.example.iso8583.domain.IsoFrame;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Roteia mensagens pelo BIN do PAN (campo 2) usando uma {@link BinRoutingTable}.
+ * <p>
+ * A tabela inteira pode ser trocada a qualquer momento com {@link #replace}: consultas em andamento
+ * terminam na tabela antiga e as seguintes já veem a nova, sem lock.
+ *
+ * @param <T> Tipo do destino
+ */
+public final class BinRouter<T> {
+
+	private static final int PAN = 2;
+
+	private final AtomicReference<BinRoutingTable<T>> table;
+	private final T defaultDestination;
+
+	/**
+	 * @param table              Tabela inicial
+	 * @param defaultDestination Destino quando nenhuma faixa cobre o PAN (pode ser null)
+	 */
+	public BinRouter(BinRoutingTable<T> table, T defaultDestination) {
+		this.table = new AtomicReference<>(Objects.requireNonNull(table, "Routing table cannot be null"));
+		this.defaultDestination = defaultDestination;
+	}
+
+	/**
+	 * Destino da mensagem indexada, lendo o campo 2 direto do buffer
+	 */
+	public T route(IsoFrame frame) {
+		if (!frame.has(PAN)) {
+			return defaultDestination;
+		}
+		T destination = table.get().lookup(frame.buffer(), frame.start(PAN), frame.end(PAN));
+		return destination != null ? destination : defaultDestination;
+	}
+
+	/**
+	 * Destino de um PAN já decodificado
+	 */
+	public T route(CharSequence pan) {
+		if (pan == null) {
+			return defaultDestination;
+		}
+		T destination = table.get().lookup(pan);
+		return destination != null ? destination : defaultDestination;
+	}
+
+	/**
+	 * Troca atomicamente a tabela de roteamento
+	 *
+	 * @return a tabela anterior
+	 */
+	public BinRoutingTable<T> replace(BinRoutingTable<T> newTable) {
+		return table.getAndSet(Objects.requireNonNull(newTable, "Routing table cannot be null"));
+	}
+
+	public BinRoutingTable<T> table() {
+		return table.get();
+	}
+}
@@ -0,0 +1,234 @@
+package com.example.iso8583.service;
+
+import com.example.iso8583.domain.FieldTemplate;
+import com.example.iso8583.domain.IsoFrame;
+import com.example.iso8583.enums.IsoType;
+import com.example.iso8583.utils.BitmapUtils;
+import com.example.iso8583.utils.FieldFormatter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Tradução entre dialetos de rede (duas {@link SpecCodec}) sem decodificar a mensagem inteira.
+ * <p>
+ * Na construção, cada campo do destino recebe um plano ({@link Action}) comparando os templates da origem
+ * e do destino. Na tradução, a mensagem de origem é só indexada e cada campo segue o seu plano:
+ * - {@link Action#COPY}: mesma codificação, os bytes (com indicador de comprimento) são copiados como estão;
+ * - {@link Action#REFRAME}: só o indicador de comprimento muda (ex: LLVAR → LLLVAR), o conteúdo é copiado;
+ * - {@link Action#CONVERT}: codificações diferentes, o valor é convertido pelo {@link FieldFormatter}.
+ * <p>
+ * Campos da origem sem correspondente no destino são descartados. O MTI é mantido.
+ */
+public final class DialectTranslator {
+
+	/**
+	 * Como cada campo do destino é produzido
+	 */
+	public enum Action {
+		/**
+		 * Campo não produzido
+		 */
+		NONE,
+
+		/**
+		 * Bytes copiados da origem sem alteração
+		 */
+		COPY,
+
+		/**
+		 * Conteúdo copiado com novo indicador de comprimento
+		 */
+		REFRAME,
+
+		/**
+		 * Valor convertido entre os tipos/tamanhos de origem e destino
+		 */
+		CONVERT
+	}
+
+	private final SpecCodec source;
+	private final SpecCodec target;
+	private final int[] sourceOf = new int[129];
+	private final Action[] actions = new Action[129];
+	private final ThreadLocal<IsoFrame> frames = ThreadLocal.withInitial(IsoFrame::new);
+	private final ThreadLocal<byte[]> buffers = ThreadLocal.withInitial(() -> new byte[1024]);
+
+	/**
+	 * Traduz cada campo para o campo de mesmo número no destino
+	 */
+	public DialectTranslator(SpecCodec source, SpecCodec target) {
+		this(source, target, Map.of());
+	}
+
+	/**
+	 * @param source      Dialeto de origem
+	 * @param target      Dialeto de destino
+	 * @param renumbering Campo da origem → campo do destino, para campos com números diferentes; os demais
+	 *                    mantêm o número
+	 */
+	public DialectTranslator(SpecCodec source, SpecCodec target, Map<Integer, Integer> renumbering) {
+		this.source = Objects.requireNonNull(source, "source cannot be null");
+		this.target = Objects.requireNonNull(target, "target cannot be null");
+		Arrays.fill(actions, Action.NONE);
+		for (int field = 2; field <= 128; field++) {
+			if (source.type(field) == null) {
+				continue;
+			}
+			int to = renumbering.getOrDefault(field, field);
+			if (to < 2 || to > 128 || to == 65) {
+				throw new IllegalArgumentException("Invalid target field " + to + " for source field " + field);
+			}
+			if (target.type(to) == null) {
+				continue;
+			}
+			if (actions[to] != Action.NONE) {
+				throw new IllegalArgumentException("Target field " + to + " mapped from fields " + sourceOf[to]
+					+ " and " + field);
+			}
+			sourceOf[to] = field;
+			actions[to] = plan(source.spec().template(field), target.spec().template(to));
+		}
+	}
+
+	/**
+	 * Plano do campo do destino
+	 */
+	public Action action(int targetField) {
+		return actions[targetField];
+	}
+
+	/**
+	 * Traduz a mensagem em bytes ASCII
+	 *
+	 * @throws IllegalArgumentException se a mensagem estiver malformada ou um valor não couber no destino
+	 * @throws IllegalStateException    se um campo do bitmap não estiver na especificação de origem
+	 */
+	public byte[] translate(byte[] message) {
+		return translate(source.index(message, 0, message.length, frames.get()));
+	}
+
+	/**
+	 * Traduz uma mensagem já indexada com a especificação de origem
+	 *
+	 * @throws IllegalArgumentException se um valor não couber no destino
+	 */
+	public byte[] translate(IsoFrame frame) {
+		long primary = 0;
+		long secondary = 0;
+		for (int field = 2; field <= 128; field++) {
+			if (actions[field] != Action.NONE && frame.has(sourceOf[field])) {
+				if (field <= 64) {
+					primary |= 1L << (64 - field);
+				} else {
+					secondary |= 1L << (128 - field);
+				}
+			}
+		}
+		if (secondary != 0) {
+			primary |= Long.MIN_VALUE;
+		}
+
+		byte[] data = frame.buffer();
+		byte[] out = ensure(buffers.get(), 36);
+		System.arraycopy(data, frame.offset(), out, 0, 4);
+		int pos = BitmapUtils.writeHex(primary, out, 4);
+		if (secondary != 0) {
+			pos = BitmapUtils.writeHex(secondary, out, pos);
+		}
+
+		for (int field = 2; field <= 128; field++) {
+			int from = sourceOf[field];
+			if (actions[field] == Action.NONE || !frame.has(from)) {
+				continue;
+			}
+			int start = frame.start(from);
+			int end = frame.end(from);
+			switch (actions[field]) {
+				case COPY -> {
+					checkFits(field, end - start);
+					start -= source.lengthDigits(from);
+					out = ensure(out, pos + end - start);
+					System.arraycopy(data, start, out, pos, end - start);
+					pos += end - start;
+				}
+				case REFRAME -> {
+					int digits = target.lengthDigits(field);
+					checkFits(field, end - start);
+					out = ensure(out, pos + digits + end - start);
+					int units = (end - start) / target.charsPerUnit(field);
+					for (int i = pos + digits - 1; i >= pos; i--, units /= 10) {
+						out[i] = (byte) ('0' + units % 10);
+					}
+					pos += digits;
+					System.arraycopy(data, start, out, pos, end - start);
+					pos += end - start;
+				}
+				default -> {
+					byte[] converted = convert(from, field, new String(data, start, end - start,
+						StandardCharsets.ISO_8859_1));
+					out = ensure(out, pos + converted.length);
+					System.arraycopy(converted, 0, out, pos, converted.length);
+					pos += converted.length;
+				}
+			}
+		}
+		buffers.set(out);
+		return Arrays.copyOf(out, pos);
+	}
+
+	/**
+	 * Mesmo tipo e tamanho (ou tipos variáveis iguais): cópia; variáveis com a mesma unidade: só o
+	 * indicador muda; o resto é convertido
+	 */
+	private static Action plan(FieldTemplate from, FieldTemplate to) {
+		IsoType fromType = from.type();
+		IsoType toType = to.type();
+		boolean fromVariable = fromType.getLengthDigits() > 0;
+		boolean toVariable = toType.getLengthDigits() > 0;
+		if (fromType == toType && (fromVariable || from.length() == to.length() || fromType.getFixedLength() > 0)) {
+			return Action.COPY;
+		}
+		if (fromVariable && toVariable && fromType.getCharsPerUnit() == toType.getCharsPerUnit()) {
+			return Action.REFRAME;
+		}
+		return Action.CONVERT;
+	}
+
+	/**
+	 * Converte o conteúdo bruto: tipos texto e binários (hex) passam o texto direto ao formatador do
+	 * destino; datas, horas e valores são interpretados antes
+	 */
+	private byte[] convert(int from, int to, String raw) {
+		IsoType fromType = source.type(from);
+		Object value = switch (fromType) {
+			case NUMERIC, ALPHA, LLVAR, LLLVAR, LLLLVAR, BINARY, LLBIN, LLLBIN, LLLLBIN -> raw;
+			default -> FieldFormatter.decodingValue(raw, fromType);
+		};
+		FieldTemplate template = target.spec().template(to);
+		String encoded = FieldFormatter.encodingValue(value, template.type(), template.length());
+		int digits = target.lengthDigits(to);
+		int fixedWidth = digits == 0 ? target.width(to) : -1;
+		if (fixedWidth >= 0 ? encoded.length() != fixedWidth
+			: encoded.length() - digits > template.length() * target.charsPerUnit(to)) {
+			throw new IllegalArgumentException("Field " + from + " does not fit target field " + to + ": " + raw);
+		}
+		return encoded.getBytes(StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Conteúdo copiado de campo variável precisa caber no tamanho máximo do destino
+	 */
+	private void checkFits(int field, int chars) {
+		if (target.lengthDigits(field) > 0
+			&& chars > target.spec().template(field).length() * target.charsPerUnit(field)) {
+			throw new IllegalArgumentException("Field " + field + " exceeds target length: " + chars + " characters");
+		}
+	}
+
+	private static byte[] ensure(byte[] buffer, int size) {
+		return size <= buffer.length ? buffer : Arrays.copyOf(buffer, Math.max(size, buffer.length * 2));
+	}
+}
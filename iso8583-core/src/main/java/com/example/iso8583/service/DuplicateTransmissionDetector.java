@@ -0,0 +1,232 @@
+package com.example.iso8583.service;
+
+import com.example.iso8583.domain.IsoFrame;
+import com.example.iso8583.utils.HashUtils;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Detecta retransmissões pela chave terminal (campo 41) + STAN (campo 11) + data/hora
+ * (campo 7, ou campo 13 quando o 7 está ausente).
+ * <p>
+ * A chave é reduzida a dois hashes de 64 bits calculados direto sobre os bytes do frame, sem criar
+ * Strings. As chaves ficam em tabelas de endereçamento aberto com arrays de {@code long}, divididas
+ * em faixas (stripes) com lock próprio, de modo que threads diferentes raramente disputam o mesmo lock.
+ * Cada chave expira após o TTL configurado; posições expiradas são reaproveitadas e a faixa é
+ * compactada quando enche.
+ */
+public final class DuplicateTransmissionDetector {
+
+	private static final int TERMINAL_ID = 41;
+	private static final int STAN = 11;
+	private static final int TRANSMISSION_DATE_TIME = 7;
+	private static final int LOCAL_DATE = 13;
+
+	private final Stripe[] stripes;
+	private final int stripeShift;
+	private final long ttlMillis;
+
+	/**
+	 * @param stripes           Quantidade de faixas (arredondada para potência de 2), tipicamente 2x os núcleos
+	 * @param capacityPerStripe Capacidade inicial de cada faixa
+	 * @param ttl               Janela em que uma chave repetida é considerada retransmissão
+	 */
+	public DuplicateTransmissionDetector(int stripes, int capacityPerStripe, Duration ttl) {
+		if (stripes <= 0 || capacityPerStripe <= 0) {
+			throw new IllegalArgumentException("Stripes and capacity must be positive");
+		}
+		int stripeCount = powerOfTwo(stripes);
+		this.stripes = new Stripe[stripeCount];
+		for (int i = 0; i < stripeCount; i++) {
+			this.stripes[i] = new Stripe(powerOfTwo(Math.max(capacityPerStripe, 16)));
+		}
+		this.stripeShift = 64 - Integer.numberOfTrailingZeros(stripeCount);
+		this.ttlMillis = ttl.toMillis();
+	}
+
+	public DuplicateTransmissionDetector(Duration ttl) {
+		this(Runtime.getRuntime().availableProcessors() * 2, 1024, ttl);
+	}
+
+	/**
+	 * Registra a transmissão e indica se a mesma chave já foi vista dentro do TTL
+	 */
+	public boolean checkAndRecord(IsoFrame frame) {
+		return checkAndRecord(frame, System.currentTimeMillis());
+	}
+
+	/**
+	 * Registra a transmissão e indica se a mesma chave já foi vista dentro do TTL
+	 *
+	 * @param frame     Mensagem indexada
+	 * @param nowMillis Instante atual em milissegundos
+	 * @return true se for retransmissão
+	 */
+	public boolean checkAndRecord(IsoFrame frame, long nowMillis) {
+		if (!frame.has(TERMINAL_ID) || !frame.has(STAN)) {
+			throw new IllegalArgumentException("Duplicate detection requires fields 41 and 11");
+		}
+		int time = frame.has(TRANSMISSION_DATE_TIME) ? TRANSMISSION_DATE_TIME : LOCAL_DATE;
+		if (!frame.has(time)) {
+			throw new IllegalArgumentException("Duplicate detection requires field 7 or 13");
+		}
+
+		return checkAndRecord(frame.buffer(),
+			frame.start(TERMINAL_ID), frame.end(TERMINAL_ID),
+			frame.start(STAN), frame.end(STAN),
+			frame.start(time), frame.end(time),
+			nowMillis);
+	}
+
+	/**
+	 * Registra a transmissão a partir de três trechos do buffer que compõem a chave
+	 *
+	 * @return true se for retransmissão
+	 */
+	public boolean checkAndRecord(byte[] data, int terminalStart, int terminalEnd, int stanStart, int stanEnd,
+								  int timeStart, int timeEnd, long nowMillis) {
+		// FNV-1a e um hash polinomial independente, com separador entre os campos
+		long h1 = HashUtils.hash(data, terminalStart, terminalEnd, HashUtils.FNV_OFFSET);
+		h1 = HashUtils.hash(data, stanStart, stanEnd, HashUtils.separator(h1));
+		h1 = HashUtils.mix(HashUtils.hash(data, timeStart, timeEnd, HashUtils.separator(h1)));
+
+		long h2 = polynomial(data, terminalStart, terminalEnd, 0x9E3779B97F4A7C15L);
+		h2 = polynomial(data, stanStart, stanEnd, h2 * 31 + 0x1F);
+		h2 = HashUtils.mix(polynomial(data, timeStart, timeEnd, h2 * 31 + 0x1F));
+
+		Stripe stripe = stripes[stripes.length == 1 ? 0 : (int) (h1 >>> stripeShift)];
+		return stripe.checkAndRecord(h1, h2, nowMillis, nowMillis + ttlMillis);
+	}
+
+	/**
+	 * Quantidade de chaves ainda válidas (aproximada, percorre todas as faixas)
+	 */
+	public int size(long nowMillis) {
+		int size = 0;
+		for (Stripe stripe : stripes) {
+			size += stripe.liveCount(nowMillis);
+		}
+		return size;
+	}
+
+	private static long polynomial(byte[] data, int start, int end, long seed) {
+		long h = seed;
+		for (int i = start; i < end; i++) {
+			h = h * 31 + (data[i] & 0xFF);
+		}
+		return h;
+	}
+
+	private static int powerOfTwo(int value) {
+		int result = Integer.highestOneBit(value);
+		return result < value ? result << 1 : result;
+	}
+
+	/**
+	 * Tabela de endereçamento aberto (sondagem linear). expires == 0 marca posição nunca usada;
+	 * posições expiradas continuam na cadeia de sondagem e são reaproveitadas.
+	 */
+	private static final class Stripe {
+		private final ReentrantLock lock = new ReentrantLock();
+		private long[] keys1;
+		private long[] keys2;
+		private long[] expires;
+		private int used;
+
+		private Stripe(int capacity) {
+			allocate(capacity);
+		}
+
+		private void allocate(int capacity) {
+			keys1 = new long[capacity];
+			keys2 = new long[capacity];
+			expires = new long[capacity];
+			used = 0;
+		}
+
+		private boolean checkAndRecord(long h1, long h2, long now, long expiresAt) {
+			lock.lock();
+			try {
+				int mask = expires.length - 1;
+				int reusable = -1;
+				int slot = (int) h1 & mask;
+				while (expires[slot] != 0) {
+					if (keys1[slot] == h1 && keys2[slot] == h2) {
+						if (expires[slot] > now) {
+							return true;
+						}
+						expires[slot] = expiresAt;
+						return false;
+					}
+					if (reusable < 0 && expires[slot] <= now) {
+						reusable = slot;
+					}
+					slot = (slot + 1) & mask;
+				}
+
+				if (reusable >= 0) {
+					slot = reusable;
+				} else {
+					used++;
+				}
+				keys1[slot] = h1;
+				keys2[slot] = h2;
+				expires[slot] = expiresAt;
+
+				if (used > (expires.length >> 1) + (expires.length >> 2)) {
+					rehash(now);
+				}
+				return false;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * Descarta as chaves expiradas e dobra a tabela se ainda estiver mais da metade cheia
+		 */
+		private void rehash(long now) {
+			long[] oldKeys1 = keys1;
+			long[] oldKeys2 = keys2;
+			long[] oldExpires = expires;
+
+			int live = 0;
+			for (long expire : oldExpires) {
+				if (expire > now) {
+					live++;
+				}
+			}
+			allocate(live > oldExpires.length >> 1 ? oldExpires.length << 1 : oldExpires.length);
+
+			int mask = expires.length - 1;
+			for (int i = 0; i < oldExpires.length; i++) {
+				if (oldExpires[i] > now) {
+					int slot = (int) oldKeys1[i] & mask;
+					while (expires[slot] != 0) {
+						slot = (slot + 1) & mask;
+					}
+					keys1[slot] = oldKeys1[i];
+					keys2[slot] = oldKeys2[i];
+					expires[slot] = oldExpires[i];
+					used++;
+				}
+			}
+		}
+
+		private int liveCount(long now) {
+			lock.lock();
+			try {
+				int live = 0;
+				for (long expire : expires) {
+					if (expire > now) {
+						live++;
+					}
+				}
+				return live;
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+}
@@ -0,0 +1,281 @@
+package com.example.iso8583.service;
+
+import com.example.iso8583.domain.IsoFrame;
+import com.example.iso8583.domain.IsoMessage;
+import com.example.iso8583.utils.HashUtils;
+import com.example.iso8583.utils.LongLongHashMap;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Guarda fora do heap as transações em andamento (aguardando resposta ou estorno).
+ * <p>
+ * Cada transação ocupa um slot de tamanho fixo em blocos (slabs) de {@link ByteBuffer} direto, com
+ * um cabeçalho pequeno (comprimento, MTI, chave, instante de criação) seguido do frame codificado.
+ * No heap ficam apenas o índice primitivo chave → slot e a pilha de slots livres, então centenas de
+ * milhares de transações pendentes não geram objetos para o GC. O {@link IsoMessage} só é montado
+ * quando pedido, em {@link #message}.
+ * <p>
+ * A chave de correlação é o hash de 64 bits de terminal (campo 41) + STAN (campo 11), ver {@link #key}.
+ */
+public final class InFlightStore {
+
+	private static final int HEADER = 24; // comprimento (4) + MTI (4) + chave (8) + criação (8)
+	private static final long NO_SLOT = -1;
+
+	private static final int TERMINAL_ID = 41;
+	private static final int STAN = 11;
+
+	private final SpecCodec codec;
+	private final int slotSize;
+	private final int slotsPerSlab;
+	private final int maxSlots;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final LongLongHashMap index;
+	private ByteBuffer[] slabs = new ByteBuffer[0];
+	private int[] freeSlots = new int[64];
+	private int freeCount;
+	private int allocatedSlots;
+
+	/**
+	 * @param codec          Codec usado para localizar a chave e para remontar a mensagem
+	 * @param maxFrameLength Maior frame aceito, em bytes
+	 * @param maxEntries     Quantidade máxima de transações em andamento
+	 * @param slabBytes      Tamanho de cada bloco alocado fora do heap
+	 */
+	public InFlightStore(SpecCodec codec, int maxFrameLength, int maxEntries, int slabBytes) {
+		if (maxFrameLength <= 0 || maxEntries <= 0) {
+			throw new IllegalArgumentException("Frame length and entries must be positive");
+		}
+		if (slabBytes < HEADER + maxFrameLength) {
+			throw new IllegalArgumentException("Slab must hold at least one frame");
+		}
+		this.codec = codec;
+		this.slotSize = (HEADER + maxFrameLength + 7) & ~7;
+		this.slotsPerSlab = slabBytes / slotSize;
+		this.maxSlots = maxEntries;
+		this.index = new LongLongHashMap(Math.min(maxEntries, 1 << 16));
+	}
+
+	/**
+	 * Frames de até 1 KB em blocos de 4 MB
+	 */
+	public InFlightStore(SpecCodec codec, int maxEntries) {
+		this(codec, 1024, maxEntries, 4 << 20);
+	}
+
+	/**
+	 * Chave de correlação de uma mensagem indexada
+	 */
+	public static long key(IsoFrame frame) {
+		if (!frame.has(TERMINAL_ID) || !frame.has(STAN)) {
+			throw new IllegalArgumentException("Correlation requires fields 41 and 11");
+		}
+		byte[] data = frame.buffer();
+		long h = HashUtils.hash(data, frame.start(TERMINAL_ID), frame.end(TERMINAL_ID), HashUtils.FNV_OFFSET);
+		h = HashUtils.hash(data, frame.start(STAN), frame.end(STAN), HashUtils.separator(h));
+		return nonZero(h);
+	}
+
+	/**
+	 * Chave de correlação a partir dos valores já formatados dos campos 41 e 11
+	 */
+	public static long key(CharSequence terminalId, CharSequence stan) {
+		long h = HashUtils.hash(terminalId, HashUtils.FNV_OFFSET);
+		h = HashUtils.hash(stan, HashUtils.separator(h));
+		return nonZero(h);
+	}
+
+	/**
+	 * Guarda a mensagem indexada, substituindo uma transação anterior com a mesma chave
+	 *
+	 * @return a chave de correlação
+	 */
+	public long put(IsoFrame frame, long nowMillis) {
+		long key = key(frame);
+		put(key, frame.mti(), frame.buffer(), frame.offset(), frame.length(), nowMillis);
+		return key;
+	}
+
+	/**
+	 * Guarda o frame sob a chave, substituindo uma transação anterior com a mesma chave
+	 *
+	 * @throws IllegalStateException se o limite de transações for atingido
+	 */
+	public void put(long key, int mti, byte[] data, int offset, int length, long nowMillis) {
+		if (length <= 0 || length > slotSize - HEADER) {
+			throw new IllegalArgumentException("Invalid frame length: " + length);
+		}
+		lock.lock();
+		try {
+			long existing = index.get(key, NO_SLOT);
+			int slot = existing != NO_SLOT ? (int) existing : allocate();
+			ByteBuffer slab = slabs[slot / slotsPerSlab];
+			int base = (slot % slotsPerSlab) * slotSize;
+			slab.putInt(base, length);
+			slab.putInt(base + 4, mti);
+			slab.putLong(base + 8, key);
+			slab.putLong(base + 16, nowMillis);
+			slab.put(base + HEADER, data, offset, length);
+			if (existing == NO_SLOT) {
+				index.put(key, slot, NO_SLOT);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public boolean contains(long key) {
+		lock.lock();
+		try {
+			return index.get(key, NO_SLOT) != NO_SLOT;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Cópia do frame guardado, ou null se a chave não estiver em andamento
+	 */
+	public byte[] frame(long key) {
+		lock.lock();
+		try {
+			long slot = index.get(key, NO_SLOT);
+			if (slot == NO_SLOT) {
+				return null;
+			}
+			return read((int) slot);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Remonta a mensagem guardada, ou null se a chave não estiver em andamento
+	 */
+	public IsoMessage message(long key) {
+		byte[] frame = frame(key);
+		return frame != null ? codec.decode(new String(frame, StandardCharsets.ISO_8859_1)) : null;
+	}
+
+	/**
+	 * Remove a transação (ex: resposta recebida) e libera o slot
+	 *
+	 * @return true se a chave estava em andamento
+	 */
+	public boolean remove(long key) {
+		lock.lock();
+		try {
+			long slot = index.remove(key, NO_SLOT);
+			if (slot == NO_SLOT) {
+				return false;
+			}
+			release((int) slot);
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Remove as transações criadas antes do corte, entregando cada uma ao handler (ex: para gerar o estorno)
+	 *
+	 * @return a quantidade de transações removidas
+	 */
+	public int drainExpired(long cutoffMillis, ExpiredHandler handler) {
+		lock.lock();
+		try {
+			int drained = 0;
+			for (int slot = 0; slot < allocatedSlots; slot++) {
+				ByteBuffer slab = slabs[slot / slotsPerSlab];
+				int base = (slot % slotsPerSlab) * slotSize;
+				if (slab.getInt(base) == 0 || slab.getLong(base + 16) >= cutoffMillis) {
+					continue;
+				}
+				long key = slab.getLong(base + 8);
+				handler.accept(key, slab.getInt(base + 4), read(slot));
+				index.remove(key, NO_SLOT);
+				release(slot);
+				drained++;
+			}
+			return drained;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Quantidade de transações em andamento
+	 */
+	public int size() {
+		lock.lock();
+		try {
+			return index.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Memória alocada fora do heap, em bytes
+	 */
+	public long offHeapBytes() {
+		lock.lock();
+		try {
+			return (long) slabs.length * slotsPerSlab * slotSize;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private byte[] read(int slot) {
+		ByteBuffer slab = slabs[slot / slotsPerSlab];
+		int base = (slot % slotsPerSlab) * slotSize;
+		byte[] data = new byte[slab.getInt(base)];
+		slab.get(base + HEADER, data);
+		return data;
+	}
+
+	private int allocate() {
+		if (freeCount > 0) {
+			return freeSlots[--freeCount];
+		}
+		if (allocatedSlots >= maxSlots) {
+			throw new IllegalStateException("In-flight store is full: " + maxSlots + " transactions");
+		}
+		int slot = allocatedSlots++;
+		if (slot / slotsPerSlab >= slabs.length) {
+			slabs = Arrays.copyOf(slabs, slabs.length + 1);
+			slabs[slabs.length - 1] = ByteBuffer.allocateDirect(slotsPerSlab * slotSize);
+		}
+		return slot;
+	}
+
+	private void release(int slot) {
+		slabs[slot / slotsPerSlab].putInt((slot % slotsPerSlab) * slotSize, 0);
+		if (freeCount == freeSlots.length) {
+			freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+		}
+		freeSlots[freeCount++] = slot;
+	}
+
+	/**
+	 * 0 marca posição livre no índice
+	 */
+	private static long nonZero(long h) {
+		h = HashUtils.mix(h);
+		return h != 0 ? h : 1;
+	}
+
+	/**
+	 * Recebe cada transação expirada em {@link #drainExpired}
+	 */
+	@FunctionalInterface
+	public interface ExpiredHandler {
+		void accept(long key, int mti, byte[] frame);
+	}
+}
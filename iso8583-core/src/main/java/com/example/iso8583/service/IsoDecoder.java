@@ -1,17 +1,20 @@
 package com.example.iso8583.service;
 
-import com.example.iso8583.domain.DecodeResult;
+import com.example.iso8583.domain.DecodeOutcome;
 import com.example.iso8583.domain.FieldTemplate;
 import com.example.iso8583.domain.IsoMessage;
 import com.example.iso8583.domain.IsoValue;
+import com.example.iso8583.domain.TlvData;
+import com.example.iso8583.enums.DecodeError;
 import com.example.iso8583.enums.IsoType;
+import com.example.iso8583.utils.AsciiUtils;
 import com.example.iso8583.utils.BitmapUtils;
 import com.example.iso8583.utils.FieldFormatter;
 
+import java.time.DateTimeException;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Decoder para converter bytes em mensagens IsoMessage seguindo o protocolo ISO 8583.
@@ -58,115 +61,117 @@ public class IsoDecoder {
 
 	/**
 	 * Decodifica uma mensagem usando um template de configuração de campos
+	 *
+	 * @throws IllegalArgumentException se a mensagem estiver malformada
+	 * @throws IllegalStateException    se um campo do bitmap não tiver template
 	 */
 	public IsoMessage decodeWithTemplate(String messageStr, Map<Integer, FieldTemplate> fieldTemplates) {
-		// Primeiro decodifica MTI e bitmap
-		IsoMessage message = decode(messageStr);
-
-		// Calcula posição inicial dos campos de dados
-		AtomicInteger currentIndex = new AtomicInteger(20); // MTI + bitmap primário
-
-		// Decodifica cada campo presente no bitmap
-		message.getBitmap()
-			.stream()
-			.forEach(fieldNumber -> {
-				FieldTemplate template = fieldTemplates.get(fieldNumber);
-				if (template == null) {
-					throw new IllegalStateException(
-						"No template found for field " + fieldNumber + " but field is present in bitmap"
-					);
-				}
-
-				try {
-					final var result = decodeField(messageStr, currentIndex.get(), template);
-
-					IsoValue<?> isoValue = new IsoValue<>(
-						template.type(),
-						result.value(),
-						template.length()
-					);
-
-					message.setField(fieldNumber, isoValue);
-					currentIndex.set(result.nextIndex());
-				} catch (Exception e) {
-					throw new RuntimeException(
-						"Error decoding field " + fieldNumber + " at position " + currentIndex, e
-					);
-				}
-			});
-
-		return message;
+		return tryDecodeWithTemplate(messageStr, fieldTemplates).orThrow();
 	}
 
 	/**
-	 * Decodifica um campo individual
+	 * Decodifica usando um template de configuração de campos, sem lançar exceção para mensagens
+	 * malformadas: a falha volta em {@link DecodeOutcome} com motivo, campo e posição.
 	 */
-	private DecodeResult<?> decodeField(String messageStr, int startIndex, FieldTemplate template) {
-		IsoType type = template.type();
-		int declaredLength = template.length();
-
-		final var result = switch (type) {
-			case LLVAR, LLBIN, LLBCDBIN -> decodeVariableField(messageStr, startIndex, 2);
-			case LLLVAR, LLLBIN, LLLBCDBIN -> decodeVariableField(messageStr, startIndex, 3);
-			case LLLLVAR, LLLLBIN, LLLLBCDBIN -> decodeVariableField(messageStr, startIndex, 4);
-			case NUMERIC, ALPHA, BINARY -> decodeFixedField(messageStr, startIndex, declaredLength);
-			case DATE14 -> decodeFixedField(messageStr, startIndex, 14);
-			case DATE12, AMOUNT -> decodeFixedField(messageStr, startIndex, 12);
-			case DATE10 -> decodeFixedField(messageStr, startIndex, 10);
-			case DATE6, TIME -> decodeFixedField(messageStr, startIndex, 6);
-			case DATE4, DATE_EXP -> decodeFixedField(messageStr, startIndex, 4);
-		};
-
-		final var fieldParsed = FieldFormatter.decodingValue(result.value().toString(), template.type());
-
-		return new DecodeResult<>(fieldParsed, result.nextIndex());
-
+	public DecodeOutcome tryDecodeWithTemplate(String messageStr, Map<Integer, FieldTemplate> fieldTemplates) {
+		return tryDecodeWithTemplate(messageStr, fieldTemplates, null);
 	}
 
 	/**
-	 * Decodifica campo de tamanho fixo
+	 * Como {@link #tryDecodeWithTemplate(String, Map)}, registrando também onde está o conteúdo de cada
+	 * campo: início em {@code fieldRanges[2 * n]} e fim (exclusivo) em {@code fieldRanges[2 * n + 1]}.
+	 * Campos com {@link FieldTemplate#locateOnly()} são validados mas não convertidos nem incluídos na
+	 * mensagem; quem chama lê o conteúdo direto pelas posições (ex: dígitos para um primitivo).
+	 *
+	 * @param fieldRanges Posições preenchidas para os campos presentes, ou null; campos além do tamanho
+	 *                    do array são convertidos normalmente
 	 */
-	private DecodeResult<?> decodeFixedField(String messageStr, int startIndex, int length) {
-		final var nextIndex = startIndex + length;
-		if (messageStr.length() < nextIndex) {
-			throw new IllegalArgumentException(
-				String.format("Message too short for fixed field of length %d at position %d",
-					length, startIndex)
-			);
+	public DecodeOutcome tryDecodeWithTemplate(String messageStr, Map<Integer, FieldTemplate> fieldTemplates,
+											   int[] fieldRanges) {
+		if (messageStr == null || messageStr.length() < 20) {
+			return DecodeOutcome.failure(DecodeError.MESSAGE_TOO_SHORT, 0, 0);
+		}
+		if (!AsciiUtils.isDigits(messageStr, 0, 4)) {
+			return DecodeOutcome.failure(DecodeError.INVALID_MTI, 0, 0);
+		}
+		if (!AsciiUtils.isHex(messageStr, 4, 20)) {
+			return DecodeOutcome.failure(DecodeError.INVALID_BITMAP, 0, 4);
 		}
 
-		String value = messageStr.substring(startIndex, nextIndex);
-		return new DecodeResult<>(value, nextIndex);
-	}
-
-	/**
-	 * Decodifica campo de tamanho variável
-	 */
-	private DecodeResult<?> decodeVariableField(String messageStr, int startIndex, int lengthDigits) {
-		int contentStart = startIndex + lengthDigits;
-		if (messageStr.length() < contentStart) {
-			throw new IllegalArgumentException(
-				String.format("Message too short for variable field length indicator (%d digits) at position %d",
-					lengthDigits, startIndex)
-			);
+		// MTI + bitmap primário, ou + secundário quando o bit 1 estiver ligado
+		int currentIndex = 20;
+		if (AsciiUtils.hexDigit(messageStr.charAt(4)) >= 8) {
+			if (messageStr.length() < 36) {
+				return DecodeOutcome.failure(DecodeError.MESSAGE_TOO_SHORT, 0, 20);
+			}
+			if (!AsciiUtils.isHex(messageStr, 20, 36)) {
+				return DecodeOutcome.failure(DecodeError.INVALID_BITMAP, 0, 20);
+			}
+			currentIndex = 36;
 		}
+		IsoMessage message = decode(messageStr);
+		BitSet bitmap = message.getBitmap();
+
+		for (int fieldNumber = bitmap.nextSetBit(2); fieldNumber >= 0 && fieldNumber <= 128;
+			 fieldNumber = bitmap.nextSetBit(fieldNumber + 1)) {
+			FieldTemplate template = fieldTemplates.get(fieldNumber);
+			if (template == null) {
+				return DecodeOutcome.failure(DecodeError.MISSING_TEMPLATE, fieldNumber, currentIndex);
+			}
 
-		// Extrai o comprimento
-		String lengthStr = messageStr.substring(startIndex, contentStart);
-		try {
-			final int contentLength = Integer.parseInt(lengthStr);
-			final int nextIndex = contentStart + contentLength;
-			if (messageStr.length() < nextIndex) {
-				throw new IllegalArgumentException(
-					String.format("Message too short for variable field content (length %d) at position %d",
-						contentLength, contentStart)
-				);
+			IsoType type = template.type();
+			int start = currentIndex;
+			int end;
+			int lengthDigits = type.getLengthDigits();
+			if (lengthDigits == 0) {
+				end = start + (type.getFixedLength() > 0
+					? type.getFixedLength()
+					: template.length() * type.getCharsPerUnit());
+			} else {
+				int length = FieldFormatter.parseLengthIndicator(messageStr, currentIndex, lengthDigits);
+				if (length < 0) {
+					return DecodeOutcome.failure(currentIndex + lengthDigits > messageStr.length()
+						? DecodeError.FIELD_TRUNCATED
+						: DecodeError.INVALID_LENGTH_INDICATOR, fieldNumber, currentIndex);
+				}
+				start = currentIndex + lengthDigits;
+				end = start + length * type.getCharsPerUnit();
+			}
+			if (end > messageStr.length()) {
+				return DecodeOutcome.failure(DecodeError.FIELD_TRUNCATED, fieldNumber, currentIndex);
+			}
+			if (!FieldFormatter.isDecodable(messageStr, start, end, type)) {
+				return DecodeOutcome.failure(DecodeError.INVALID_CONTENT, fieldNumber, start);
 			}
 
-			String value = messageStr.substring(contentStart, nextIndex);
-			return new DecodeResult<>(value, nextIndex);
-		} catch (NumberFormatException e) {
-			throw new IllegalArgumentException("Invalid length indicator: " + lengthStr, e);
+			if (fieldRanges != null && 2 * fieldNumber + 1 < fieldRanges.length) {
+				fieldRanges[2 * fieldNumber] = start;
+				fieldRanges[2 * fieldNumber + 1] = end;
+				if (template.locateOnly()) {
+					currentIndex = end;
+					continue;
+				}
+			}
+
+			// Campos compostos mantêm o conteúdo original e indexam as tags só quando acessadas
+			String raw = messageStr.substring(start, end);
+			Object value;
+			try {
+				value = template.tlvFormat() != null
+					? TlvData.of(template.tlvFormat(), raw)
+					: FieldFormatter.decodingValue(raw, type);
+			} catch (IllegalArgumentException | DateTimeException e) {
+				// Formato já validado acima; resta o conteúdo semanticamente inválido (ex: mês 13)
+				return DecodeOutcome.failure(DecodeError.INVALID_CONTENT, fieldNumber, start);
+			}
+
+			message.setField(fieldNumber, new IsoValue<>(type, value, template.length()));
+			currentIndex = end;
+		}
+		if (currentIndex != messageStr.length()) {
+			return DecodeOutcome.failure(DecodeError.TRAILING_DATA, 0, currentIndex);
 		}
+
+		return DecodeOutcome.success(message);
 	}
 }
@@ -5,6 +5,9 @@ import com.example.iso8583.domain.IsoValue;
 import com.example.iso8583.utils.BitmapUtils;
 import com.example.iso8583.utils.FieldFormatter;
 
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.HexFormat;
 import java.util.Map;
 
 /**
@@ -22,6 +25,18 @@ public class IsoEncoder {
 	 * Codifica uma mensagem ISO 8583 em array de bytes
 	 */
 	public byte[] encode(IsoMessage message) {
+		return encode(message, null);
+	}
+
+	/**
+	 * Codifica a mensagem calculando o MAC durante a escrita: o sink recebe MTI, bitmap e cada campo
+	 * assim que são escritos, e o MAC é acrescentado no fim como DE 64 (ou DE 128 se houver bitmap
+	 * secundário), com o bit correspondente ligado no bitmap. Um valor já presente no campo do MAC é
+	 * ignorado. A mensagem não é alterada.
+	 *
+	 * @param mac Destino do MAC (ex: {@link RetailMac}), ou null para codificar sem MAC
+	 */
+	public byte[] encode(IsoMessage message, MacSink mac) {
 		if (message == null) {
 			throw new IllegalArgumentException("Message cannot be null");
 		}
@@ -33,9 +48,19 @@ public class IsoEncoder {
 		// 1. Adiciona MTI (4 dígitos)
 		result.append(message.getMti());
 
-		// 2. Adiciona bitmap(s)
-		final String bitmapHex = BitmapUtils.toIsoBitmapHex(message.getBitmap());
+		// 2. Adiciona bitmap(s), com o bit do campo do MAC
+		BitSet bitmap = message.getBitmap();
+		int macField = 0;
+		if (mac != null) {
+			bitmap = (BitSet) bitmap.clone();
+			macField = bitmap.get(1) || bitmap.nextSetBit(65) >= 0 ? 128 : 64;
+			bitmap.set(macField);
+		}
+		final String bitmapHex = BitmapUtils.toIsoBitmapHex(bitmap);
 		result.append(bitmapHex);
+		if (mac != null) {
+			mac.update(result);
+		}
 
 		// 3. Adiciona campos de dados em ordem crescente
 		Map<Integer, IsoValue<?>> fields = message.getFields();
@@ -43,16 +68,25 @@ public class IsoEncoder {
 			int fieldNumber = entry.getKey();
 			IsoValue<?> isoValue = entry.getValue();
 
-			// Pula o campo 1 (bitmap secundário é tratado automaticamente)
-			if (fieldNumber == 1) {
+			// Pula o campo 1 (bitmap secundário é tratado automaticamente) e o campo do MAC
+			if (fieldNumber == 1 || fieldNumber == macField) {
 				continue;
 			}
 
 			String encodedField = encodeField(isoValue);
 			result.append(encodedField);
+			if (mac != null) {
+				mac.update(encodedField);
+			}
+		}
+
+		// 4. MAC sobre tudo o que foi escrito, em hexadecimal como os demais campos binários
+		if (mac != null) {
+			result.append(HexFormat.of().withUpperCase().formatHex(mac.doFinal()));
 		}
 
-		return result.toString().getBytes();
+		// Um byte por caractere, os mesmos bytes que o sink do MAC recebeu
+		return result.toString().getBytes(StandardCharsets.ISO_8859_1);
 	}
 
 	/**
@@ -2,6 +2,7 @@ package com.example.iso8583.service;
 
 import com.example.iso8583.domain.FieldTemplate;
 import com.example.iso8583.domain.IsoMessage;
+import com.example.iso8583.domain.MessageSpec;
 import com.example.iso8583.enums.IsoType;
 
 import java.util.HashMap;
@@ -25,6 +26,14 @@ public class IsoMessageFactory {
 		return this;
 	}
 
+	/**
+	 * Adiciona os templates de uma especificação carregada em runtime
+	 */
+	public IsoMessageFactory addFieldTemplates(MessageSpec spec) {
+		fieldTemplates.putAll(spec.fieldTemplates());
+		return this;
+	}
+
 	/**
 	 * Codifica uma mensagem usando esta factory
 	 */
@@ -32,6 +41,14 @@ public class IsoMessageFactory {
 		return encoder.encode(message);
 	}
 
+	/**
+	 * Pré-codifica a mensagem de exemplo: os campos presentes viram constantes, exceto os variáveis,
+	 * cujo tipo vem do exemplo ou dos templates desta factory
+	 */
+	public MessageTemplate template(IsoMessage prototype, int... variableFields) {
+		return MessageTemplate.of(prototype, fieldTemplates, variableFields);
+	}
+
 	/**
 	 * Decodifica uma mensagem a partir de string
 	 */
@@ -0,0 +1,42 @@
+package com.example.iso8583.service;
+
+/**
+ * Destino incremental de MAC: recebe os bytes da mensagem à medida que o encoder escreve cada campo,
+ * sem uma segunda passada sobre a mensagem pronta.
+ * <p>
+ * Ver {@link IsoEncoder#encode(com.example.iso8583.domain.IsoMessage, MacSink)} e {@link RetailMac}.
+ */
+public interface MacSink {
+
+	/**
+	 * Acrescenta um byte ao cálculo
+	 */
+	void update(byte b);
+
+	/**
+	 * Acrescenta um trecho do buffer ao cálculo
+	 */
+	default void update(byte[] data, int offset, int length) {
+		for (int i = offset; i < offset + length; i++) {
+			update(data[i]);
+		}
+	}
+
+	/**
+	 * Acrescenta texto ao cálculo, um byte por caractere, sem converter para byte[]. Usa a mesma regra da
+	 * codificação ISO-8859-1 da saída do encoder: caracteres fora dela viram '?'.
+	 */
+	default void update(CharSequence text) {
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			update(c <= 0xFF ? (byte) c : (byte) '?');
+		}
+	}
+
+	/**
+	 * Finaliza o cálculo e prepara o sink para a próxima mensagem
+	 *
+	 * @return o MAC
+	 */
+	byte[] doFinal();
+}
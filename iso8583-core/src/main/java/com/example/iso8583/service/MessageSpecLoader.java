@@ -0,0 +1,172 @@
+package com.example.iso8583.service;
+
+import com.example.iso8583.domain.FieldTemplate;
+import com.example.iso8583.domain.MessageSpec;
+import com.example.iso8583.enums.IsoType;
+import com.example.iso8583.enums.TlvFormat;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Carrega especificações de campos em XML e mantém um {@link SpecCodec} por especificação.
+ * <p>
+ * Formato esperado:
+ * <pre>{@code
+ * <iso8583-spec name="rede-x">
+ *     <field number="2" type="LLVAR"/>
+ *     <field number="4" type="AMOUNT"/>
+ *     <field number="11" type="NUMERIC" length="6"/>
+ *     <field number="55" type="LLLBIN" tlv="BER"/>
+ * </iso8583-spec>
+ * }</pre>
+ * Os codecs ficam em cache pelo SHA-256 do conteúdo, então recarregar a mesma especificação
+ * reaproveita o codec já montado.
+ */
+public class MessageSpecLoader {
+
+	private final ConcurrentMap<String, SpecCodec> codecs = new ConcurrentHashMap<>();
+
+	/**
+	 * Retorna o codec da especificação, montando-o apenas na primeira vez
+	 */
+	public SpecCodec codec(byte[] specContent) {
+		String hash = sha256(specContent);
+		SpecCodec codec = codecs.get(hash);
+		if (codec == null) {
+			codec = codecs.computeIfAbsent(hash, h -> new SpecCodec(parse(specContent, h)));
+		}
+		return codec;
+	}
+
+	/**
+	 * Retorna o codec da especificação lida do stream
+	 */
+	public SpecCodec codec(InputStream in) {
+		return codec(readAll(in));
+	}
+
+	/**
+	 * Carrega a especificação sem passar pelo cache
+	 */
+	public MessageSpec load(byte[] specContent) {
+		return parse(specContent, sha256(specContent));
+	}
+
+	/**
+	 * Carrega a especificação lida do stream sem passar pelo cache
+	 */
+	public MessageSpec load(InputStream in) {
+		return load(readAll(in));
+	}
+
+	private MessageSpec parse(byte[] specContent, String hash) {
+		Document document;
+		try {
+			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+			factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+			factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+			factory.setXIncludeAware(false);
+			factory.setExpandEntityReferences(false);
+			DocumentBuilder builder = factory.newDocumentBuilder();
+			document = builder.parse(new ByteArrayInputStream(specContent));
+		} catch (Exception e) {
+			throw new IllegalArgumentException("Invalid ISO 8583 spec: " + e.getMessage(), e);
+		}
+
+		Element root = document.getDocumentElement();
+		if (!"iso8583-spec".equals(root.getTagName())) {
+			throw new IllegalArgumentException("Invalid ISO 8583 spec: root element must be <iso8583-spec>");
+		}
+
+		FieldTemplate[] templates = new FieldTemplate[129];
+		NodeList fields = root.getElementsByTagName("field");
+		for (int i = 0; i < fields.getLength(); i++) {
+			Element field = (Element) fields.item(i);
+			int number = intAttribute(field, "number", -1);
+			if (number < 2 || number > 128) {
+				throw new IllegalArgumentException("Invalid ISO 8583 spec: field number must be between 2 and 128");
+			}
+			if (templates[number] != null) {
+				throw new IllegalArgumentException("Invalid ISO 8583 spec: field " + number + " is defined twice");
+			}
+
+			IsoType type;
+			try {
+				type = IsoType.valueOf(field.getAttribute("type").trim().toUpperCase(Locale.ROOT));
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException(
+					"Invalid ISO 8583 spec: unknown type '" + field.getAttribute("type") + "' for field " + number, e
+				);
+			}
+
+			int length = intAttribute(field, "length", 0);
+			if (length <= 0 && (type == IsoType.NUMERIC || type == IsoType.ALPHA || type == IsoType.BINARY)) {
+				throw new IllegalArgumentException(
+					"Invalid ISO 8583 spec: field " + number + " of type " + type + " requires a length"
+				);
+			}
+
+			TlvFormat tlvFormat = null;
+			String tlv = field.getAttribute("tlv").trim();
+			if (!tlv.isEmpty()) {
+				try {
+					tlvFormat = TlvFormat.valueOf(tlv.toUpperCase(Locale.ROOT));
+				} catch (IllegalArgumentException e) {
+					throw new IllegalArgumentException(
+						"Invalid ISO 8583 spec: unknown TLV format '" + tlv + "' for field " + number, e
+					);
+				}
+			}
+
+			templates[number] = new FieldTemplate(type, length, tlvFormat);
+		}
+
+		String name = root.getAttribute("name");
+		return new MessageSpec(name.isEmpty() ? hash.substring(0, 12) : name, hash, templates);
+	}
+
+	private static int intAttribute(Element element, String attribute, int defaultValue) {
+		String value = element.getAttribute(attribute).trim();
+		if (value.isEmpty()) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(
+				"Invalid ISO 8583 spec: attribute '" + attribute + "' must be numeric: " + value, e
+			);
+		}
+	}
+
+	private static String sha256(byte[] content) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
+		}
+	}
+
+	private static byte[] readAll(InputStream in) {
+		try (in) {
+			return in.readAllBytes();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Error reading ISO 8583 spec", e);
+		}
+	}
+}
@@ -0,0 +1,254 @@
+package com.example.iso8583.service;
+
+import com.example.iso8583.domain.FieldTemplate;
+import com.example.iso8583.domain.IsoMessage;
+import com.example.iso8583.domain.IsoValue;
+import com.example.iso8583.enums.IsoType;
+import com.example.iso8583.utils.AsciiUtils;
+import com.example.iso8583.utils.BitmapUtils;
+import com.example.iso8583.utils.FieldFormatter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+
+/**
+ * Mensagem pré-codificada: MTI, bitmap e campos constantes (ex: 18, 22, 25, 32, 41, 42, 49 de um terminal,
+ * ou tudo de um echo test) viram uma imagem em bytes uma única vez; por mensagem só os campos variáveis
+ * (ex: 7, 11, 37, 39) são escritos.
+ * <p>
+ * - Campos variáveis de tamanho fixo têm uma posição reservada na imagem e são escritos direto nela.
+ * - Campos variáveis com indicador de comprimento são intercalados entre os trechos da imagem na saída.
+ * <p>
+ * Com só campos de tamanho fixo, codificar é copiar a imagem. Criado por
+ * {@link IsoMessageFactory#template} ou pelos encoders gerados ({@code IsoMessageEncoder.template}).
+ */
+public final class MessageTemplate {
+
+	private final byte[] image;
+	private final int[] fields;
+	private final IsoType[] types;
+	private final int[] lengths;
+	private final int[] offsets;
+	private final int[] widths;
+	private final int[] slotOf = new int[129];
+	private final boolean spliced;
+	private final ThreadLocal<Writer> writers = ThreadLocal.withInitial(this::writer);
+
+	private MessageTemplate(IsoMessage prototype, Map<Integer, FieldTemplate> templates, int[] variableFields) {
+		if (prototype.getMti() == null || prototype.getMti().length() != 4) {
+			throw new IllegalArgumentException("Invalid MTI: " + prototype.getMti());
+		}
+		Arrays.fill(slotOf, -1);
+		int[] sorted = variableFields.clone();
+		Arrays.sort(sorted);
+		this.fields = sorted;
+		this.types = new IsoType[sorted.length];
+		this.lengths = new int[sorted.length];
+		this.offsets = new int[sorted.length];
+		this.widths = new int[sorted.length];
+
+		BitSet bitmap = new BitSet(129);
+		for (Integer field : prototype.getFields().keySet()) {
+			bitmap.set(field);
+		}
+		for (int i = 0; i < sorted.length; i++) {
+			int field = sorted[i];
+			if (field < 2 || field > 128 || slotOf[field] >= 0) {
+				throw new IllegalArgumentException("Invalid or repeated variable field: " + field);
+			}
+			slotOf[field] = i;
+			bitmap.set(field);
+			IsoValue<?> value = prototype.getField(field);
+			FieldTemplate template = value != null
+				? new FieldTemplate(value.type(), value.length())
+				: templates.get(field);
+			if (template == null) {
+				throw new IllegalArgumentException("No type defined for variable field " + field);
+			}
+			types[i] = template.type();
+			lengths[i] = template.length();
+		}
+
+		StringBuilder result = new StringBuilder(128);
+		result.append(prototype.getMti());
+		result.append(BitmapUtils.toIsoBitmapHex(bitmap));
+		boolean anySpliced = false;
+		for (int field = bitmap.nextSetBit(2); field >= 0; field = bitmap.nextSetBit(field + 1)) {
+			int slot = slotOf[field];
+			if (slot < 0) {
+				IsoValue<?> value = prototype.getField(field);
+				result.append(FieldFormatter.encodingValue(value.value(), value.type(), value.length()));
+				continue;
+			}
+			offsets[slot] = result.length();
+			if (types[slot].getLengthDigits() > 0) {
+				widths[slot] = -1;
+				anySpliced = true;
+			} else {
+				IsoType type = types[slot];
+				widths[slot] = type.getFixedLength() > 0
+					? type.getFixedLength()
+					: lengths[slot] * type.getCharsPerUnit();
+				result.repeat(' ', widths[slot]);
+			}
+		}
+		this.image = result.toString().getBytes(StandardCharsets.ISO_8859_1);
+		this.spliced = anySpliced;
+	}
+
+	/**
+	 * Template a partir de uma mensagem de exemplo: os campos presentes que não forem variáveis viram
+	 * constantes; os variáveis precisam estar presentes no exemplo (o valor é ignorado, só o tipo é usado)
+	 */
+	public static MessageTemplate of(IsoMessage prototype, int... variableFields) {
+		return new MessageTemplate(prototype, Map.of(), variableFields);
+	}
+
+	/**
+	 * Como {@link #of(IsoMessage, int...)}, buscando em {@code templates} o tipo dos campos variáveis
+	 * ausentes do exemplo
+	 */
+	static MessageTemplate of(IsoMessage prototype, Map<Integer, FieldTemplate> templates, int... variableFields) {
+		return new MessageTemplate(prototype, templates, variableFields);
+	}
+
+	/**
+	 * Novo escritor, reutilizável e de uso exclusivo de uma thread
+	 */
+	public Writer writer() {
+		return new Writer();
+	}
+
+	/**
+	 * Codifica uma mensagem com os valores dos campos variáveis, em ordem crescente de número de campo
+	 */
+	public byte[] encode(Object... values) {
+		if (values.length != fields.length) {
+			throw new IllegalArgumentException("Expected " + fields.length + " values, got " + values.length);
+		}
+		Writer writer = writers.get();
+		for (int i = 0; i < values.length; i++) {
+			writer.set(fields[i], values[i]);
+		}
+		return writer.toBytes();
+	}
+
+	/**
+	 * Campos variáveis, em ordem crescente
+	 */
+	public int[] variableFields() {
+		return fields.clone();
+	}
+
+	/**
+	 * Escritor de mensagens a partir do template: guarda uma cópia da imagem onde os campos de tamanho
+	 * fixo são escritos. Todos os campos variáveis precisam ser definidos antes de cada saída.
+	 */
+	public final class Writer {
+
+		private final byte[] work = image.clone();
+		private final byte[][] splices = new byte[fields.length][];
+		private final boolean[] assigned = new boolean[fields.length];
+
+		private Writer() {
+		}
+
+		/**
+		 * Define o campo, formatado como no {@link IsoEncoder}
+		 */
+		public Writer set(int fieldNumber, Object value) {
+			int slot = slot(fieldNumber);
+			byte[] encoded = FieldFormatter.encodingValue(value, types[slot], lengths[slot])
+				.getBytes(StandardCharsets.ISO_8859_1);
+			if (widths[slot] < 0) {
+				splices[slot] = encoded;
+			} else {
+				if (encoded.length != widths[slot]) {
+					throw new IllegalArgumentException("Field " + fieldNumber + " must have " + widths[slot]
+						+ " characters, got " + encoded.length);
+				}
+				System.arraycopy(encoded, 0, work, offsets[slot], encoded.length);
+			}
+			assigned[slot] = true;
+			return this;
+		}
+
+		/**
+		 * Define um campo NUMERIC direto na imagem, sem criar Strings (ex: STAN)
+		 */
+		public Writer setDigits(int fieldNumber, long value) {
+			int slot = slot(fieldNumber);
+			if (types[slot] != IsoType.NUMERIC) {
+				throw new IllegalArgumentException("Field " + fieldNumber + " is not NUMERIC: " + types[slot]);
+			}
+			AsciiUtils.writeDigits(value, widths[slot], work, offsets[slot]);
+			assigned[slot] = true;
+			return this;
+		}
+
+		/**
+		 * Tamanho da mensagem com os valores atuais
+		 */
+		public int size() {
+			int size = work.length;
+			if (spliced) {
+				for (byte[] splice : splices) {
+					size += splice == null ? 0 : splice.length;
+				}
+			}
+			return size;
+		}
+
+		/**
+		 * Mensagem codificada; os valores são descartados e precisam ser definidos de novo
+		 */
+		public byte[] toBytes() {
+			byte[] result = new byte[size()];
+			writeTo(result, 0);
+			return result;
+		}
+
+		/**
+		 * Escreve a mensagem no buffer; os valores são descartados e precisam ser definidos de novo
+		 *
+		 * @return a posição seguinte ao último byte escrito
+		 */
+		public int writeTo(byte[] buffer, int offset) {
+			for (int i = 0; i < assigned.length; i++) {
+				if (!assigned[i]) {
+					throw new IllegalStateException("Variable field " + fields[i] + " not set");
+				}
+				assigned[i] = false;
+			}
+			if (!spliced) {
+				System.arraycopy(work, 0, buffer, offset, work.length);
+				return offset + work.length;
+			}
+			int pos = offset;
+			int copied = 0;
+			for (int i = 0; i < fields.length; i++) {
+				if (widths[i] >= 0) {
+					continue;
+				}
+				System.arraycopy(work, copied, buffer, pos, offsets[i] - copied);
+				pos += offsets[i] - copied;
+				copied = offsets[i];
+				System.arraycopy(splices[i], 0, buffer, pos, splices[i].length);
+				pos += splices[i].length;
+				splices[i] = null;
+			}
+			System.arraycopy(work, copied, buffer, pos, work.length - copied);
+			return pos + work.length - copied;
+		}
+
+		private int slot(int fieldNumber) {
+			int slot = fieldNumber >= 0 && fieldNumber <= 128 ? slotOf[fieldNumber] : -1;
+			if (slot < 0) {
+				throw new IllegalArgumentException("Field " + fieldNumber + " is not a variable field of the template");
+			}
+			return slot;
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package com.example.iso8583.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sequência numérica sem lock, particionada por nó e por shard.
+ * <p>
+ * O intervalo {@code [first, last]} é dividido em faixas fixas, uma por nó do cluster, de modo que
+ * nós diferentes nunca emitem o mesmo valor sem precisar se coordenar. Dentro do nó, um único cursor
+ * atômico percorre a faixa em blocos de 64 valores; cada shard reserva um bloco do cursor
+ * e o consome no seu contador, em uma linha de cache própria. A thread escolhe o shard pelo seu id, então
+ * threads diferentes raramente disputam o mesmo contador e o cursor só é tocado uma vez por bloco.
+ * <p>
+ * Um valor só se repete depois que o cursor percorre a faixa inteira do nó ({@link #nodeSize()} valores),
+ * mesmo que uma única thread gere quase todo o tráfego.
+ */
+public final class PartitionedSequence {
+
+	/**
+	 * Valores reservados do cursor por vez (potência de 2)
+	 */
+	private static final int BLOCK = 64;
+
+	/**
+	 * Distância entre contadores no array (16 longs = 128 bytes), evitando falso compartilhamento
+	 */
+	private static final int PADDING = 16;
+
+	private final AtomicLong cursor = new AtomicLong();
+	private final AtomicLongArray counters;
+	private final int shardMask;
+	private final long nodeFirst;
+	private final long nodeSize;
+
+	/**
+	 * @param first     Primeiro valor do intervalo global
+	 * @param last      Último valor do intervalo global (inclusivo)
+	 * @param nodeId    Índice do nó, de 0 a {@code nodeCount - 1}
+	 * @param nodeCount Quantidade de nós que compartilham o intervalo
+	 * @param shards    Quantidade de contadores no nó (arredondada para potência de 2)
+	 */
+	public PartitionedSequence(long first, long last, int nodeId, int nodeCount, int shards) {
+		if (first < 0 || last < first) {
+			throw new IllegalArgumentException("Invalid sequence range: " + first + " to " + last);
+		}
+		if (nodeCount <= 0 || nodeId < 0 || nodeId >= nodeCount) {
+			throw new IllegalArgumentException("Invalid node id " + nodeId + " for " + nodeCount + " nodes");
+		}
+		if (shards <= 0) {
+			throw new IllegalArgumentException("Shards must be positive");
+		}
+
+		long nodeSize = (last - first + 1) / nodeCount;
+		if (nodeSize == 0) {
+			throw new IllegalArgumentException("Sequence range too small for " + nodeCount + " nodes");
+		}
+		int shardCount = Integer.highestOneBit(shards);
+		shardCount = shardCount < shards ? shardCount << 1 : shardCount;
+
+		this.counters = new AtomicLongArray(shardCount * PADDING);
+		this.shardMask = shardCount - 1;
+		this.nodeFirst = first + nodeId * nodeSize;
+		this.nodeSize = nodeSize;
+	}
+
+	/**
+	 * Próximo valor da sequência
+	 */
+	public long next() {
+		int slot = ((int) Thread.currentThread().threadId() & shardMask) * PADDING;
+		while (true) {
+			// O contador guarda a próxima posição do bloco do shard; no limite do bloco, está esgotado
+			long position = counters.get(slot);
+			if ((position & (BLOCK - 1)) != 0) {
+				if (counters.compareAndSet(slot, position, position + 1)) {
+					return value(position);
+				}
+				continue;
+			}
+			// Reserva um bloco novo e emite o primeiro valor; se outra thread do shard instalou um bloco
+			// antes, o resto deste é descartado, sem repetir valores
+			long block = cursor.getAndAdd(BLOCK);
+			counters.compareAndSet(slot, position, block + 1);
+			return value(block);
+		}
+	}
+
+	/**
+	 * Quantidade de contadores efetivamente usados
+	 */
+	public int shards() {
+		return shardMask + 1;
+	}
+
+	/**
+	 * Quantidade de valores da faixa do nó antes do wraparound
+	 */
+	public long nodeSize() {
+		return nodeSize;
+	}
+
+	private long value(long position) {
+		return nodeFirst + Long.remainderUnsigned(position, nodeSize);
+	}
+}
@@ -0,0 +1,126 @@
+package com.example.iso8583.service;
+
+import com.example.iso8583.enums.MacPadding;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * MAC da ISO 9797-1 com DES, calculado em software bloco a bloco (sem HSM), útil com chaves locais de
+ * teste e homologação.
+ * <p>
+ * - Chave de 8 bytes: algoritmo 1 (CBC-MAC com DES simples).
+ * - Chave de 16 bytes (K1 + K2): algoritmo 3, o "Retail MAC" da ANSI X9.19: CBC-MAC com K1 e, no
+ * último bloco, decifra com K2 e cifra de novo com K1.
+ * <p>
+ * Não é thread-safe: use uma instância por thread/conexão.
+ */
+public final class RetailMac implements MacSink {
+
+	private static final int BLOCK = 8;
+
+	private final Cipher encryptK1;
+	private final Cipher decryptK2;
+	private final MacPadding padding;
+	private final byte[] state = new byte[BLOCK];
+	private final byte[] block = new byte[BLOCK];
+	private int filled;
+	private long total;
+
+	/**
+	 * @param key     Chave de 8 (algoritmo 1) ou 16 bytes (algoritmo 3)
+	 * @param padding Padding do último bloco
+	 */
+	public RetailMac(byte[] key, MacPadding padding) {
+		Objects.requireNonNull(key, "key cannot be null");
+		if (key.length != BLOCK && key.length != 2 * BLOCK) {
+			throw new IllegalArgumentException("MAC key must have 8 or 16 bytes, got " + key.length);
+		}
+		this.padding = Objects.requireNonNull(padding, "padding cannot be null");
+		try {
+			this.encryptK1 = Cipher.getInstance("DES/ECB/NoPadding");
+			encryptK1.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, 0, BLOCK, "DES"));
+			if (key.length == 2 * BLOCK) {
+				this.decryptK2 = Cipher.getInstance("DES/ECB/NoPadding");
+				decryptK2.init(Cipher.DECRYPT_MODE, new SecretKeySpec(key, BLOCK, BLOCK, "DES"));
+			} else {
+				this.decryptK2 = null;
+			}
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("DES not available", e);
+		}
+	}
+
+	/**
+	 * Padding método 1 (zeros), como na ANSI X9.19
+	 */
+	public RetailMac(byte[] key) {
+		this(key, MacPadding.METHOD_1);
+	}
+
+	@Override
+	public void update(byte b) {
+		block[filled++] = b;
+		total++;
+		if (filled == BLOCK) {
+			chain();
+		}
+	}
+
+	@Override
+	public void update(byte[] data, int offset, int length) {
+		for (int i = offset; i < offset + length; i++) {
+			block[filled++] = data[i];
+			if (filled == BLOCK) {
+				chain();
+			}
+		}
+		total += length;
+	}
+
+	@Override
+	public byte[] doFinal() {
+		if (padding == MacPadding.METHOD_2) {
+			block[filled++] = (byte) 0x80;
+			if (filled == BLOCK) {
+				chain();
+			}
+		}
+		// Método 1: mensagem vazia ainda gera um bloco de zeros
+		if (filled > 0 || total == 0) {
+			Arrays.fill(block, filled, BLOCK, (byte) 0);
+			chain();
+		}
+		if (decryptK2 != null) {
+			cipher(decryptK2);
+			cipher(encryptK1);
+		}
+		byte[] mac = state.clone();
+		Arrays.fill(state, (byte) 0);
+		filled = 0;
+		total = 0;
+		return mac;
+	}
+
+	/**
+	 * Encadeia o bloco completo: estado = DES(K1, estado XOR bloco)
+	 */
+	private void chain() {
+		for (int i = 0; i < BLOCK; i++) {
+			state[i] ^= block[i];
+		}
+		cipher(encryptK1);
+		filled = 0;
+	}
+
+	private void cipher(Cipher cipher) {
+		try {
+			cipher.update(state, 0, BLOCK, state, 0);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("Error computing MAC", e);
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package com.example.iso8583.service;
+
+import com.example.iso8583.utils.AsciiUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * Gera o RRN (campo 37, 12 caracteres) no formato {@code YDDDnnnnnnnn}: último dígito do ano,
+ * dia juliano e uma sequência de 8 dígitos particionada por nó.
+ * <p>
+ * A data só é recalculada na virada do dia; nas demais chamadas o prefixo já vem pronto em bytes.
+ *
+ * @see PartitionedSequence
+ */
+public final class RrnGenerator {
+
+	public static final int LENGTH = 12;
+
+	private static final int DATE_DIGITS = 4;
+	private static final int SEQUENCE_DIGITS = LENGTH - DATE_DIGITS;
+
+	private final PartitionedSequence sequence;
+	private final Clock clock;
+	private volatile DatePrefix prefix;
+
+	/**
+	 * @param nodeId    Índice deste nó, de 0 a {@code nodeCount - 1}
+	 * @param nodeCount Quantidade de nós do cluster
+	 * @param shards    Quantidade de contadores no nó
+	 * @param clock     Relógio usado para a data juliana (o fuso do relógio define a virada do dia)
+	 */
+	public RrnGenerator(int nodeId, int nodeCount, int shards, Clock clock) {
+		this.sequence = new PartitionedSequence(0, 99_999_999, nodeId, nodeCount, shards);
+		this.clock = clock;
+		this.prefix = DatePrefix.of(clock);
+	}
+
+	public RrnGenerator(int nodeId, int nodeCount) {
+		this(nodeId, nodeCount, Runtime.getRuntime().availableProcessors(), Clock.systemDefaultZone());
+	}
+
+	/**
+	 * Próximo RRN, ex: "628800000042"
+	 */
+	public String nextValue() {
+		byte[] rrn = new byte[LENGTH];
+		writeTo(rrn, 0);
+		return new String(rrn, StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * Escreve o próximo RRN direto no buffer de encode
+	 *
+	 * @return a posição seguinte ao último caractere
+	 */
+	public int writeTo(byte[] buffer, int offset) {
+		DatePrefix current = prefix;
+		long now = clock.millis();
+		if (now >= current.nextDayMillis() || now < current.dayMillis()) {
+			current = DatePrefix.of(clock);
+			prefix = current;
+		}
+		System.arraycopy(current.digits(), 0, buffer, offset, DATE_DIGITS);
+		return AsciiUtils.writeDigits(sequence.next(), SEQUENCE_DIGITS, buffer, offset + DATE_DIGITS);
+	}
+
+	public PartitionedSequence sequence() {
+		return sequence;
+	}
+
+	/**
+	 * @param digits        Prefixo YDDD em ASCII
+	 * @param dayMillis     Início do dia no fuso do relógio
+	 * @param nextDayMillis Início do dia seguinte
+	 */
+	private record DatePrefix(byte[] digits, long dayMillis, long nextDayMillis) {
+
+		static DatePrefix of(Clock clock) {
+			LocalDate today = LocalDate.now(clock);
+			byte[] digits = new byte[DATE_DIGITS];
+			digits[0] = (byte) ('0' + today.getYear() % 10);
+			AsciiUtils.writeDigits(today.getDayOfYear(), 3, digits, 1);
+			return new DatePrefix(digits,
+				today.atStartOfDay(clock.getZone()).toInstant().toEpochMilli(),
+				today.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli());
+		}
+	}
+}
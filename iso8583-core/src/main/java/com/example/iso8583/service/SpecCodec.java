@@ -0,0 +1,336 @@
+package com.example.iso8583.service;
+
+import com.example.iso8583.domain.DecodeOutcome;
+import com.example.iso8583.domain.FieldTemplate;
+import com.example.iso8583.domain.IsoFrame;
+import com.example.iso8583.domain.IsoMessage;
+import com.example.iso8583.domain.IsoValue;
+import com.example.iso8583.domain.MessageSpec;
+import com.example.iso8583.domain.TlvData;
+import com.example.iso8583.enums.DecodeError;
+import com.example.iso8583.enums.IsoType;
+import com.example.iso8583.enums.TlvFormat;
+import com.example.iso8583.utils.AsciiUtils;
+import com.example.iso8583.utils.BitmapUtils;
+import com.example.iso8583.utils.FieldFormatter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.util.BitSet;
+import java.util.Map;
+
+/**
+ * Encoder/decoder especializado para uma {@link MessageSpec} carregada em runtime.
+ * <p>
+ * Tipo, largura e dígitos do indicador de comprimento de cada campo são resolvidos uma única vez
+ * na construção e guardados em arrays indexados pelo número do campo. O decode percorre o bitmap
+ * em um laço direto, sem lookup em mapa, boxing ou streams.
+ */
+public final class SpecCodec {
+
+	private final MessageSpec spec;
+	private final IsoType[] types = new IsoType[129];
+	private final TlvFormat[] tlvFormats = new TlvFormat[129];
+	private final int[] lengths = new int[129];
+	private final int[] widths = new int[129];
+	private final int[] lengthDigits = new int[129];
+	private final int[] charsPerUnit = new int[129];
+
+	public SpecCodec(MessageSpec spec) {
+		this.spec = spec;
+		for (int field = 2; field <= 128; field++) {
+			FieldTemplate template = spec.template(field);
+			if (template == null) {
+				continue;
+			}
+			IsoType type = template.type();
+			types[field] = type;
+			tlvFormats[field] = template.tlvFormat();
+			lengths[field] = template.length();
+			lengthDigits[field] = type.getLengthDigits();
+			charsPerUnit[field] = type.getCharsPerUnit();
+			widths[field] = type.getFixedLength() > 0
+				? type.getFixedLength()
+				: template.length() * type.getCharsPerUnit();
+		}
+	}
+
+	public MessageSpec spec() {
+		return spec;
+	}
+
+	/**
+	 * Tipo do campo na especificação, ou null se não definido
+	 */
+	IsoType type(int fieldNumber) {
+		return types[fieldNumber];
+	}
+
+	/**
+	 * Dígitos do indicador de comprimento (0 para campos fixos)
+	 */
+	int lengthDigits(int fieldNumber) {
+		return lengthDigits[fieldNumber];
+	}
+
+	/**
+	 * Largura em caracteres de um campo fixo
+	 */
+	int width(int fieldNumber) {
+		return widths[fieldNumber];
+	}
+
+	/**
+	 * Caracteres por unidade do indicador de comprimento (2 em binários codificados em hex)
+	 */
+	int charsPerUnit(int fieldNumber) {
+		return charsPerUnit[fieldNumber];
+	}
+
+	/**
+	 * Define um campo usando o tipo e o comprimento da especificação
+	 */
+	public void setField(IsoMessage message, int fieldNumber, Object value) {
+		message.setField(fieldNumber, value, requireType(fieldNumber), lengths[fieldNumber]);
+	}
+
+	/**
+	 * Codifica a mensagem usando os templates da especificação
+	 */
+	public byte[] encode(IsoMessage message) {
+		if (message == null) {
+			throw new IllegalArgumentException("Message cannot be null");
+		}
+
+		// O bitmap é derivado dos campos presentes (sem alterar a mensagem), ligando o bit 1 quando houver
+		// secundário
+		BitSet bitmap = new BitSet(129);
+		Map<Integer, IsoValue<?>> fields = message.getFields();
+		for (Integer fieldNumber : fields.keySet()) {
+			requireType(fieldNumber);
+			bitmap.set(fieldNumber);
+		}
+
+		StringBuilder result = new StringBuilder(128);
+		result.append(message.getMti());
+		result.append(BitmapUtils.toIsoBitmapHex(bitmap));
+		for (Map.Entry<Integer, IsoValue<?>> entry : fields.entrySet()) {
+			int field = entry.getKey();
+			result.append(FieldFormatter.encodingValue(entry.getValue().value(), types[field], lengths[field]));
+		}
+		return result.toString().getBytes(StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Decodifica uma mensagem a partir de string
+	 *
+	 * @throws IllegalArgumentException se a mensagem estiver malformada
+	 * @throws IllegalStateException    se um campo do bitmap não estiver na especificação
+	 */
+	public IsoMessage decode(String data) {
+		return tryDecode(data).orThrow();
+	}
+
+	/**
+	 * Decodifica sem lançar exceção para mensagens malformadas: a falha volta em {@link DecodeOutcome}
+	 * com motivo, campo e posição. Pensado para volumes altos de tráfego inválido, onde montar a pilha
+	 * de cada exceção domina o custo.
+	 */
+	public DecodeOutcome tryDecode(String data) {
+		if (data == null || data.length() < 20) {
+			return DecodeOutcome.failure(DecodeError.MESSAGE_TOO_SHORT, 0, 0);
+		}
+		if (!AsciiUtils.isDigits(data, 0, 4)) {
+			return DecodeOutcome.failure(DecodeError.INVALID_MTI, 0, 0);
+		}
+		if (!AsciiUtils.isHex(data, 4, 20)) {
+			return DecodeOutcome.failure(DecodeError.INVALID_BITMAP, 0, 4);
+		}
+
+		IsoMessage message = new IsoMessage(data.substring(0, 4));
+		BitSet bitmap = BitmapUtils.hexToBitSet(data.substring(4, 20));
+		int pos = 20;
+		if (bitmap.get(1)) {
+			if (data.length() < 36) {
+				return DecodeOutcome.failure(DecodeError.MESSAGE_TOO_SHORT, 0, 20);
+			}
+			if (!AsciiUtils.isHex(data, 20, 36)) {
+				return DecodeOutcome.failure(DecodeError.INVALID_BITMAP, 0, 20);
+			}
+			bitmap = BitmapUtils.hexToBitSet(data.substring(4, 36));
+			pos = 36;
+		}
+		message.setBitmap(bitmap);
+
+		for (int field = bitmap.nextSetBit(2); field >= 0 && field <= 128; field = bitmap.nextSetBit(field + 1)) {
+			IsoType type = types[field];
+			if (type == null) {
+				return DecodeOutcome.failure(DecodeError.MISSING_TEMPLATE, field, pos);
+			}
+
+			int start = pos;
+			int digits = lengthDigits[field];
+			int end;
+			if (digits == 0) {
+				end = start + widths[field];
+			} else {
+				int length = FieldFormatter.parseLengthIndicator(data, pos, digits);
+				if (length < 0) {
+					return DecodeOutcome.failure(pos + digits > data.length()
+						? DecodeError.FIELD_TRUNCATED
+						: DecodeError.INVALID_LENGTH_INDICATOR, field, pos);
+				}
+				start = pos + digits;
+				end = start + length * charsPerUnit[field];
+			}
+			if (end > data.length()) {
+				return DecodeOutcome.failure(DecodeError.FIELD_TRUNCATED, field, pos);
+			}
+			if (!FieldFormatter.isDecodable(data, start, end, type)) {
+				return DecodeOutcome.failure(DecodeError.INVALID_CONTENT, field, start);
+			}
+
+			String raw = data.substring(start, end);
+			Object value;
+			try {
+				value = tlvFormats[field] != null
+					? TlvData.of(tlvFormats[field], raw)
+					: FieldFormatter.decodingValue(raw, type);
+			} catch (IllegalArgumentException | DateTimeException e) {
+				// Formato já validado acima; resta o conteúdo semanticamente inválido (ex: mês 13)
+				return DecodeOutcome.failure(DecodeError.INVALID_CONTENT, field, start);
+			}
+			message.setField(field, new IsoValue<>(type, value, lengths[field]));
+			pos = end;
+		}
+		if (pos != data.length()) {
+			return DecodeOutcome.failure(DecodeError.TRAILING_DATA, 0, pos);
+		}
+
+		return DecodeOutcome.success(message);
+	}
+
+	/**
+	 * Indexa uma mensagem em bytes ASCII sem converter valores: só localiza cada campo no buffer.
+	 * O frame é reutilizável e nenhuma alocação é feita.
+	 *
+	 * @param data   Buffer com a mensagem
+	 * @param offset Posição do MTI no buffer
+	 * @param length Tamanho da mensagem
+	 * @param frame  Frame a preencher
+	 * @return o próprio frame
+	 * @throws IllegalArgumentException se a mensagem estiver malformada
+	 * @throws IllegalStateException    se um campo do bitmap não estiver na especificação
+	 */
+	public IsoFrame index(byte[] data, int offset, int length, IsoFrame frame) {
+		if (!tryIndex(data, offset, length, frame)) {
+			DecodeOutcome.failure(frame.error(), frame.errorField(), frame.errorOffset()).orThrow();
+		}
+		return frame;
+	}
+
+	/**
+	 * Como {@link #index}, mas sem lançar exceção para mensagens malformadas: o motivo, o campo e a
+	 * posição da falha ficam em {@link IsoFrame#error()}, {@link IsoFrame#errorField()} e
+	 * {@link IsoFrame#errorOffset()}.
+	 *
+	 * @return true se a mensagem foi indexada
+	 */
+	public boolean tryIndex(byte[] data, int offset, int length, IsoFrame frame) {
+		int limit = offset + length;
+		if (length < 20 || limit > data.length) {
+			frame.wrap(data, offset, length, 0, 0);
+			return frame.fail(DecodeError.MESSAGE_TOO_SHORT, 0, offset);
+		}
+		if (!AsciiUtils.isDigits(data, offset, offset + 4)) {
+			frame.wrap(data, offset, length, 0, 0);
+			return frame.fail(DecodeError.INVALID_MTI, 0, offset);
+		}
+
+		if (!AsciiUtils.isHex(data, offset + 4, offset + 20)) {
+			frame.wrap(data, offset, length, 0, 0);
+			return frame.fail(DecodeError.INVALID_BITMAP, 0, offset + 4);
+		}
+
+		long primary = AsciiUtils.parseHexLong(data, offset + 4, offset + 20);
+		long secondary = 0;
+		int pos = offset + 20;
+		if (primary < 0) { // bit 1: bitmap secundário
+			if (length < 36 || !AsciiUtils.isHex(data, offset + 20, offset + 36)) {
+				frame.wrap(data, offset, length, 0, 0);
+				return frame.fail(length < 36 ? DecodeError.MESSAGE_TOO_SHORT : DecodeError.INVALID_BITMAP,
+					0, offset + 20);
+			}
+			secondary = AsciiUtils.parseHexLong(data, offset + 20, offset + 36);
+			pos = offset + 36;
+		}
+		frame.wrap(data, offset, length, primary, secondary);
+
+		pos = indexFields(data, limit, frame, primary & Long.MAX_VALUE, 0, pos);
+		if (pos >= 0) {
+			pos = indexFields(data, limit, frame, secondary, 64, pos);
+		}
+		if (pos >= 0 && pos != limit) {
+			return frame.fail(DecodeError.TRAILING_DATA, 0, pos);
+		}
+		return pos >= 0;
+	}
+
+	/**
+	 * Percorre só os bits ligados de uma metade do bitmap, do campo menor para o maior
+	 *
+	 * @return a posição após o último campo, ou -1 se a falha foi registrada no frame
+	 */
+	private int indexFields(byte[] data, int limit, IsoFrame frame, long bits, int base, int pos) {
+		while (bits != 0) {
+			int zeros = Long.numberOfLeadingZeros(bits);
+			bits &= ~(Long.MIN_VALUE >>> zeros);
+			int field = base + zeros + 1;
+
+			if (types[field] == null) {
+				frame.fail(DecodeError.MISSING_TEMPLATE, field, pos);
+				return -1;
+			}
+
+			int start = pos;
+			int digits = lengthDigits[field];
+			if (digits > 0) {
+				if (pos + digits > limit) {
+					frame.fail(DecodeError.FIELD_TRUNCATED, field, pos);
+					return -1;
+				}
+				int fieldLength = 0;
+				int invalid = 0;
+				for (int i = pos; i < pos + digits; i++) {
+					int digit = data[i] - '0';
+					invalid |= digit | (9 - digit);
+					fieldLength = fieldLength * 10 + digit;
+				}
+				if (invalid < 0) {
+					frame.fail(DecodeError.INVALID_LENGTH_INDICATOR, field, pos);
+					return -1;
+				}
+				start = pos + digits;
+				pos = start + fieldLength * charsPerUnit[field];
+			} else {
+				pos = start + widths[field];
+			}
+			if (pos > limit) {
+				frame.fail(DecodeError.FIELD_TRUNCATED, field, start - digits);
+				return -1;
+			}
+			frame.field(field, start, pos);
+		}
+		return pos;
+	}
+
+	private IsoType requireType(int fieldNumber) {
+		IsoType type = fieldNumber >= 2 && fieldNumber <= 128 ? types[fieldNumber] : null;
+		if (type == null) {
+			throw new IllegalArgumentException(
+				"Field " + fieldNumber + " is not defined in spec " + spec.name()
+			);
+		}
+		return type;
+	}
+}
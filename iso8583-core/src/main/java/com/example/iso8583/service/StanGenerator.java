@@ -0,0 +1,59 @@
+package com.example.iso8583.service;
+
+import com.example.iso8583.utils.AsciiUtils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Gera o STAN (campo 11, 6 dígitos) de 000001 a 999999, sem lock e sem coordenação entre nós.
+ *
+ * @see PartitionedSequence
+ */
+public final class StanGenerator {
+
+	public static final int DIGITS = 6;
+
+	private final PartitionedSequence sequence;
+
+	/**
+	 * @param nodeId    Índice deste nó, de 0 a {@code nodeCount - 1}
+	 * @param nodeCount Quantidade de nós do cluster
+	 * @param shards    Quantidade de contadores no nó
+	 */
+	public StanGenerator(int nodeId, int nodeCount, int shards) {
+		this.sequence = new PartitionedSequence(1, 999_999, nodeId, nodeCount, shards);
+	}
+
+	/**
+	 * Um contador por núcleo disponível
+	 */
+	public StanGenerator(int nodeId, int nodeCount) {
+		this(nodeId, nodeCount, Runtime.getRuntime().availableProcessors());
+	}
+
+	public int next() {
+		return (int) sequence.next();
+	}
+
+	/**
+	 * Próximo STAN com zeros à esquerda, ex: "000123"
+	 */
+	public String nextValue() {
+		byte[] digits = new byte[DIGITS];
+		AsciiUtils.writeDigits(sequence.next(), DIGITS, digits, 0);
+		return new String(digits, StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * Escreve o próximo STAN direto no buffer de encode
+	 *
+	 * @return a posição seguinte ao último dígito
+	 */
+	public int writeTo(byte[] buffer, int offset) {
+		return AsciiUtils.writeDigits(sequence.next(), DIGITS, buffer, offset);
+	}
+
+	public PartitionedSequence sequence() {
+		return sequence;
+	}
+}
@@ -0,0 +1,332 @@
+package com.example.iso8583.service;
+
+import com.example.iso8583.domain.IsoFrame;
+import com.example.iso8583.enums.DecodeError;
+import com.example.iso8583.utils.AsciiUtils;
+
+import java.util.Arrays;
+
+/**
+ * Decoder incremental para leituras parciais de TCP: recebe pedaços arbitrários de bytes e retoma a
+ * análise exatamente no campo (e na etapa: indicador ou conteúdo) onde a entrada acabou.
+ * <p>
+ * As mensagens não têm prefixo de tamanho; o fim de cada uma é descoberto pelo bitmap e pelos
+ * templates da {@link SpecCodec}. Uma mensagem inteira dentro do pedaço é entregue sem cópia, com o
+ * {@link IsoFrame} apontando para o próprio buffer recebido. Só a mensagem que atravessa pedaços é
+ * copiada para um buffer interno, e o conteúdo dos campos é copiado em bloco, sem reanálise.
+ * <p>
+ * Uma instância por conexão; não é thread-safe. Após um erro o fluxo não tem como ser
+ * ressincronizado: o decoder ignora novas entradas até {@link #reset()}.
+ */
+public final class StreamingDecoder {
+
+	private static final int MTI = 0;
+	private static final int PRIMARY_BITMAP = 1;
+	private static final int SECONDARY_BITMAP = 2;
+	private static final int FIELDS = 3;
+	private static final int FAILED = 4;
+
+	private final SpecCodec codec;
+	private final int maxMessageLength;
+	private final IsoFrame frame = new IsoFrame();
+	private final int[] starts = new int[129];
+	private final int[] ends = new int[129];
+
+	// Mensagem em andamento que atravessou pedaços
+	private byte[] pending = new byte[1024];
+	private int pendingLength;
+
+	// Pedaço atual
+	private byte[] chunk;
+	private int chunkPosition;
+	private int chunkEnd;
+	private boolean buffered;
+	private int messageStart;
+
+	// Estado da análise, em posições relativas ao início da mensagem
+	private int state = MTI;
+	private int position;
+	private long primary;
+	private long secondary;
+	private long remaining;
+	private int remainingBase;
+	private int field;
+	private int contentStart;
+	private int contentLength = -1;
+
+	/**
+	 * @param codec            Especificação usada para localizar os campos
+	 * @param maxMessageLength Maior mensagem aceita; acima disso o fluxo é considerado corrompido
+	 */
+	public StreamingDecoder(SpecCodec codec, int maxMessageLength) {
+		if (maxMessageLength < 20) {
+			throw new IllegalArgumentException("Max message length must be at least 20");
+		}
+		this.codec = codec;
+		this.maxMessageLength = maxMessageLength;
+	}
+
+	public StreamingDecoder(SpecCodec codec) {
+		this(codec, 64 * 1024);
+	}
+
+	/**
+	 * Consome um pedaço do fluxo, entregando ao listener cada mensagem que se completar.
+	 * O frame entregue só é válido durante a chamada ao listener.
+	 *
+	 * @return a quantidade de mensagens entregues
+	 */
+	public int feed(byte[] data, int offset, int length, Listener listener) {
+		if (state == FAILED) {
+			return 0;
+		}
+		chunk = data;
+		chunkPosition = offset;
+		chunkEnd = offset + length;
+		buffered = pendingLength > 0;
+		messageStart = offset;
+
+		int messages = 0;
+		while (buffered || messageStart < chunkEnd) {
+			if (!advance(listener)) {
+				if (state != FAILED && !buffered) {
+					keep(data, messageStart, chunkEnd - messageStart);
+				}
+				break;
+			}
+
+			emit(listener);
+			messages++;
+			if (buffered) {
+				buffered = false;
+				pendingLength = 0;
+				messageStart = chunkPosition;
+			} else {
+				messageStart += position;
+			}
+			restart();
+		}
+		chunk = null;
+		return messages;
+	}
+
+	/**
+	 * Descarta a mensagem em andamento e o estado de erro
+	 */
+	public void reset() {
+		pendingLength = 0;
+		restart();
+	}
+
+	/**
+	 * Bytes da mensagem em andamento já recebidos (0 entre mensagens)
+	 */
+	public int pendingBytes() {
+		return pendingLength;
+	}
+
+	public boolean isFailed() {
+		return state == FAILED;
+	}
+
+	/**
+	 * Avança a máquina de estados até completar a mensagem ou faltar entrada
+	 *
+	 * @return true se a mensagem foi completada
+	 */
+	private boolean advance(Listener listener) {
+		while (true) {
+			switch (state) {
+				case MTI -> {
+					if (!available(4)) {
+						return false;
+					}
+					if (!AsciiUtils.isDigits(buffer(), base(), base() + 4)) {
+						return fail(listener, DecodeError.INVALID_MTI, 0);
+					}
+					position = 4;
+					state = PRIMARY_BITMAP;
+				}
+				case PRIMARY_BITMAP -> {
+					if (!available(16)) {
+						return false;
+					}
+					if (!AsciiUtils.isHex(buffer(), base() + position, base() + position + 16)) {
+						return fail(listener, DecodeError.INVALID_BITMAP, 0);
+					}
+					primary = AsciiUtils.parseHexLong(buffer(), base() + position, base() + position + 16);
+					remaining = primary & Long.MAX_VALUE;
+					position += 16;
+					state = primary < 0 ? SECONDARY_BITMAP : FIELDS;
+				}
+				case SECONDARY_BITMAP -> {
+					if (!available(16)) {
+						return false;
+					}
+					if (!AsciiUtils.isHex(buffer(), base() + position, base() + position + 16)) {
+						return fail(listener, DecodeError.INVALID_BITMAP, 0);
+					}
+					secondary = AsciiUtils.parseHexLong(buffer(), base() + position, base() + position + 16);
+					position += 16;
+					state = FIELDS;
+				}
+				case FIELDS -> {
+					if (field == 0) {
+						field = nextField();
+						if (field == 0) {
+							return true;
+						}
+						if (codec.type(field) == null) {
+							return fail(listener, DecodeError.MISSING_TEMPLATE, field);
+						}
+					}
+					if (contentLength < 0) {
+						int digits = codec.lengthDigits(field);
+						if (digits == 0) {
+							contentStart = position;
+							contentLength = codec.width(field);
+						} else {
+							if (!available(digits)) {
+								return false;
+							}
+							int units = 0;
+							int invalid = 0;
+							byte[] buffer = buffer();
+							for (int i = base() + position; i < base() + position + digits; i++) {
+								int digit = buffer[i] - '0';
+								invalid |= digit | (9 - digit);
+								units = units * 10 + digit;
+							}
+							if (invalid < 0) {
+								return fail(listener, DecodeError.INVALID_LENGTH_INDICATOR, field);
+							}
+							contentStart = position + digits;
+							contentLength = units * codec.charsPerUnit(field);
+						}
+						if (contentStart + contentLength > maxMessageLength) {
+							return fail(listener, DecodeError.MESSAGE_TOO_LONG, field);
+						}
+						position = contentStart;
+					}
+					if (!available(contentLength)) {
+						return false;
+					}
+					starts[field] = contentStart;
+					ends[field] = contentStart + contentLength;
+					position = contentStart + contentLength;
+					field = 0;
+					contentLength = -1;
+				}
+				default -> {
+					return false;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Próximo campo do bitmap ainda não lido, ou 0 se acabaram
+	 */
+	private int nextField() {
+		if (remaining == 0) {
+			if (remainingBase != 0 || secondary == 0) {
+				return 0;
+			}
+			remaining = secondary;
+			remainingBase = 64;
+		}
+		int zeros = Long.numberOfLeadingZeros(remaining);
+		remaining &= ~(Long.MIN_VALUE >>> zeros);
+		return remainingBase + zeros + 1;
+	}
+
+	/**
+	 * Garante {@code count} bytes a partir da posição atual, copiando do pedaço para o buffer
+	 * interno quando a mensagem já atravessou pedaços
+	 */
+	private boolean available(int count) {
+		int needed = position + count;
+		if (!buffered) {
+			return messageStart + needed <= chunkEnd;
+		}
+		if (pendingLength < needed) {
+			int take = Math.min(needed - pendingLength, chunkEnd - chunkPosition);
+			append(chunk, chunkPosition, take);
+			chunkPosition += take;
+		}
+		return pendingLength >= needed;
+	}
+
+	private byte[] buffer() {
+		return buffered ? pending : chunk;
+	}
+
+	private int base() {
+		return buffered ? 0 : messageStart;
+	}
+
+	/**
+	 * Guarda o trecho já recebido da mensagem em andamento; a análise continua no próximo pedaço
+	 */
+	private void keep(byte[] data, int offset, int length) {
+		pendingLength = 0;
+		append(data, offset, length);
+	}
+
+	private void append(byte[] data, int offset, int length) {
+		if (pendingLength + length > pending.length) {
+			pending = Arrays.copyOf(pending, Math.max(pendingLength + length, pending.length * 2));
+		}
+		System.arraycopy(data, offset, pending, pendingLength, length);
+		pendingLength += length;
+	}
+
+	private void emit(Listener listener) {
+		byte[] buffer = buffer();
+		int base = base();
+		frame.wrap(buffer, base, position, primary, secondary);
+		for (int f = 2; f <= 128; f++) {
+			if (frame.has(f)) {
+				frame.field(f, base + starts[f], base + ends[f]);
+			}
+		}
+		listener.onMessage(frame);
+	}
+
+	private boolean fail(Listener listener, DecodeError error, int fieldNumber) {
+		state = FAILED;
+		pendingLength = 0;
+		listener.onError(error, fieldNumber, position);
+		return false;
+	}
+
+	private void restart() {
+		state = MTI;
+		position = 0;
+		primary = 0;
+		secondary = 0;
+		remaining = 0;
+		remainingBase = 0;
+		field = 0;
+		contentLength = -1;
+	}
+
+	/**
+	 * Recebe as mensagens completadas e os erros do fluxo
+	 */
+	public interface Listener {
+
+		/**
+		 * Mensagem completa. O frame e o buffer para o qual ele aponta só são válidos durante a chamada.
+		 */
+		void onMessage(IsoFrame frame);
+
+		/**
+		 * Fluxo corrompido; nenhuma mensagem é entregue até {@link StreamingDecoder#reset()}
+		 *
+		 * @param offset Posição relativa ao início da mensagem em andamento
+		 */
+		default void onError(DecodeError error, int field, int offset) {
+		}
+	}
+}
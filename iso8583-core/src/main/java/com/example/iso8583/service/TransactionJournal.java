@@ -0,0 +1,372 @@
+package com.example.iso8583.service;
+
+import com.example.iso8583.domain.IsoFrame;
+import com.example.iso8583.utils.HashUtils;
+import com.example.iso8583.utils.LongLongHashMap;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Journal append-only dos frames brutos (requisições e respostas), para auditoria e para localizar
+ * a transação original de um estorno (MTI 0400).
+ * <p>
+ * - Os frames são gravados em segmentos de tamanho fixo mapeados em memória ({@code journal-NNNNNN.log});
+ * cada registro tem comprimento, CRC32C, timestamp e os bytes do frame.
+ * - Group commit: {@link #append} só copia para o mapeamento; {@link #sync} faz um único {@code force}
+ * que cobre tudo o que foi gravado até ali, então várias threads esperando juntas pagam um só flush.
+ * - Índice em memória (mapa primitivo {@code long -> long}) do hash do RRN (campo 37) e do hash de
+ * terminal + STAN (campos 41 e 11) para a posição do primeiro registro com a chave, normalmente a
+ * requisição original: respostas e estornos que repetem os campos não a substituem. É reconstruído na
+ * abertura, lendo os segmentos existentes na ordem de gravação; registros com CRC inválido no fim
+ * (gravação interrompida) são descartados.
+ * <p>
+ * As chaves do índice são hashes de 64 bits: quem precisa de certeza absoluta confere o frame lido.
+ */
+public final class TransactionJournal implements AutoCloseable {
+
+	/**
+	 * Posição devolvida quando a chave não está no índice
+	 */
+	public static final long NOT_FOUND = -1;
+
+	private static final int HEADER = 16; // comprimento (4) + CRC32C (4) + timestamp (8)
+
+	private static final int TERMINAL_ID = 41;
+	private static final int STAN = 11;
+	private static final int RRN = 37;
+
+	private static final long RRN_SEED = 0x9E3779B97F4A7C15L;
+	private static final long TERMINAL_STAN_SEED = 0xC2B2AE3D27D4EB4FL;
+
+	private final Path directory;
+	private final SpecCodec codec;
+	private final int segmentSize;
+
+	private final ReentrantLock appendLock = new ReentrantLock();
+	private final ReentrantLock syncLock = new ReentrantLock();
+	private final IsoFrame frame = new IsoFrame();
+	private final LongLongHashMap index = new LongLongHashMap(1 << 16);
+
+	private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+	private volatile long writePosition;
+	private volatile long durablePosition;
+
+	/**
+	 * Abre (ou cria) o journal no diretório, reconstruindo o índice a partir dos segmentos existentes
+	 *
+	 * @param directory   Diretório dos segmentos
+	 * @param codec       Codec usado para localizar os campos indexados em cada frame
+	 * @param segmentSize Tamanho de cada segmento em bytes
+	 */
+	public TransactionJournal(Path directory, SpecCodec codec, int segmentSize) {
+		if (segmentSize < 4096) {
+			throw new IllegalArgumentException("Segment size must be at least 4096 bytes");
+		}
+		this.directory = directory;
+		this.codec = codec;
+		this.segmentSize = segmentSize;
+		try {
+			Files.createDirectories(directory);
+			recover();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Error opening transaction journal at " + directory, e);
+		}
+	}
+
+	/**
+	 * Grava o frame no journal e o indexa. A gravação só é durável após {@link #sync}.
+	 *
+	 * @return a posição do registro
+	 */
+	public long append(byte[] data, int offset, int length) {
+		return append(data, offset, length, System.currentTimeMillis());
+	}
+
+	/**
+	 * Grava o frame no journal e o indexa. A gravação só é durável após {@link #sync}.
+	 *
+	 * @param timestamp Instante de recebimento/envio em milissegundos
+	 * @return a posição do registro
+	 */
+	public long append(byte[] data, int offset, int length, long timestamp) {
+		if (length <= 0 || length > segmentSize - HEADER) {
+			throw new IllegalArgumentException("Invalid frame length: " + length);
+		}
+		CRC32C crc = new CRC32C();
+		crc.update(data, offset, length);
+		int checksum = (int) crc.getValue();
+
+		appendLock.lock();
+		try {
+			long position = writePosition;
+			int segmentOffset = (int) (position % segmentSize);
+			if (segmentOffset + HEADER + length > segmentSize) {
+				// Não cabe: marca o fim do segmento com comprimento 0 e o registro vai para o próximo
+				if (segmentOffset + 4 <= segmentSize) {
+					segment((int) (position / segmentSize)).putInt(segmentOffset, 0);
+				}
+				position = (position / segmentSize + 1) * segmentSize;
+				segmentOffset = 0;
+			}
+			MappedByteBuffer segment = segment((int) (position / segmentSize));
+			segment.put(segmentOffset + HEADER, data, offset, length);
+			segment.putInt(segmentOffset + 4, checksum);
+			segment.putLong(segmentOffset + 8, timestamp);
+			segment.putInt(segmentOffset, length);
+
+			indexFrame(data, offset, length, position);
+			writePosition = position + HEADER + length;
+			return position;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Error writing transaction journal", e);
+		} finally {
+			appendLock.unlock();
+		}
+	}
+
+	/**
+	 * Grava o frame e espera até que esteja em disco
+	 */
+	public long appendDurable(byte[] data, int offset, int length) {
+		long position = append(data, offset, length);
+		sync(position);
+		return position;
+	}
+
+	/**
+	 * Garante que o registro da posição (e todos os anteriores) esteja em disco.
+	 * Se outra thread já fez o flush cobrindo a posição, retorna sem I/O.
+	 */
+	public void sync(long position) {
+		if (durablePosition > position) {
+			return;
+		}
+		syncLock.lock();
+		try {
+			if (durablePosition > position) {
+				return;
+			}
+			long target = writePosition;
+			long from = durablePosition;
+			MappedByteBuffer[] mapped = segments;
+			for (int segment = (int) (from / segmentSize); segment < mapped.length; segment++) {
+				long segmentStart = (long) segment * segmentSize;
+				int start = (int) Math.max(from - segmentStart, 0);
+				int end = (int) Math.min(target - segmentStart, segmentSize);
+				if (end > start) {
+					mapped[segment].force(start, end - start);
+				}
+			}
+			durablePosition = target;
+		} finally {
+			syncLock.unlock();
+		}
+	}
+
+	/**
+	 * Posição do primeiro registro com o RRN (campo 37), ou {@link #NOT_FOUND}
+	 */
+	public long findByRrn(CharSequence rrn) {
+		long key = nonZero(HashUtils.hash(rrn, RRN_SEED));
+		appendLock.lock();
+		try {
+			return index.get(key, NOT_FOUND);
+		} finally {
+			appendLock.unlock();
+		}
+	}
+
+	/**
+	 * Posição do primeiro registro com o terminal (campo 41) e STAN (campo 11), ou {@link #NOT_FOUND}
+	 */
+	public long findByTerminalStan(CharSequence terminalId, CharSequence stan) {
+		long key = nonZero(HashUtils.hash(stan, HashUtils.separator(HashUtils.hash(terminalId, TERMINAL_STAN_SEED))));
+		appendLock.lock();
+		try {
+			return index.get(key, NOT_FOUND);
+		} finally {
+			appendLock.unlock();
+		}
+	}
+
+	/**
+	 * Lê o frame gravado na posição
+	 */
+	public byte[] read(long position) {
+		if (position < 0 || position >= writePosition) {
+			throw new IllegalArgumentException("Invalid journal position: " + position);
+		}
+		MappedByteBuffer segment = segments[(int) (position / segmentSize)];
+		int segmentOffset = (int) (position % segmentSize);
+		byte[] data = new byte[segment.getInt(segmentOffset)];
+		segment.get(segmentOffset + HEADER, data);
+		return data;
+	}
+
+	/**
+	 * Percorre em ordem todos os registros gravados até agora
+	 *
+	 * @return a quantidade de registros lidos
+	 */
+	public long replay(RecordHandler handler) {
+		return replay(0, handler);
+	}
+
+	/**
+	 * Percorre em ordem os registros a partir da posição informada
+	 *
+	 * @return a quantidade de registros lidos
+	 */
+	public long replay(long fromPosition, RecordHandler handler) {
+		long limit = writePosition;
+		MappedByteBuffer[] mapped = segments;
+		byte[] buffer = new byte[1024];
+		long count = 0;
+		long position = fromPosition;
+		while (position < limit) {
+			MappedByteBuffer segment = mapped[(int) (position / segmentSize)];
+			int segmentOffset = (int) (position % segmentSize);
+			int length = segmentOffset + HEADER <= segmentSize ? segment.getInt(segmentOffset) : 0;
+			if (length <= 0 || length > segmentSize - segmentOffset - HEADER) {
+				// Fim do segmento (comprimento 0 ou que não cabe nele)
+				position = (position / segmentSize + 1) * segmentSize;
+				continue;
+			}
+			if (buffer.length < length) {
+				buffer = new byte[Math.max(length, buffer.length * 2)];
+			}
+			segment.get(segmentOffset + HEADER, buffer, 0, length);
+			handler.accept(position, segment.getLong(segmentOffset + 8), buffer, length);
+			position += HEADER + length;
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Posição onde o próximo registro será gravado
+	 */
+	public long writePosition() {
+		return writePosition;
+	}
+
+	/**
+	 * Quantidade de chaves no índice
+	 */
+	public int indexSize() {
+		appendLock.lock();
+		try {
+			return index.size();
+		} finally {
+			appendLock.unlock();
+		}
+	}
+
+	@Override
+	public void close() {
+		sync(writePosition);
+	}
+
+	/**
+	 * Mapeia os segmentos existentes, valida os registros e reconstrói o índice
+	 */
+	private void recover() throws IOException {
+		long position = 0;
+		for (int number = 0; Files.exists(segmentPath(number)); number++) {
+			MappedByteBuffer segment = segment(number);
+			long segmentStart = (long) number * segmentSize;
+			int offset = 0;
+			byte[] buffer = new byte[1024];
+			CRC32C crc = new CRC32C();
+			boolean torn = false;
+			while (offset + HEADER <= segmentSize) {
+				int length = segment.getInt(offset);
+				if (length <= 0 || offset + HEADER + length > segmentSize) {
+					torn = length != 0;
+					break;
+				}
+				if (buffer.length < length) {
+					buffer = new byte[Math.max(length, buffer.length * 2)];
+				}
+				segment.get(offset + HEADER, buffer, 0, length);
+				crc.reset();
+				crc.update(buffer, 0, length);
+				if ((int) crc.getValue() != segment.getInt(offset + 4)) {
+					torn = true;
+					break;
+				}
+				indexFrame(buffer, 0, length, segmentStart + offset);
+				offset += HEADER + length;
+			}
+			position = segmentStart + offset;
+			// Limpa todo o resto do segmento após uma gravação interrompida: bytes antigos do registro
+			// cortado não podem ser lidos depois como comprimento de um registro
+			int end = torn ? segmentSize : Math.min(offset + HEADER, segmentSize);
+			for (int i = offset; i < end; i++) {
+				segment.put(i, (byte) 0);
+			}
+		}
+		writePosition = position;
+		durablePosition = position;
+	}
+
+	/**
+	 * Indexa RRN e terminal + STAN do frame, mantendo a posição já indexada para a mesma chave. Frames
+	 * que não seguem a especificação continuam no journal, apenas sem entrada no índice.
+	 */
+	private void indexFrame(byte[] data, int offset, int length, long position) {
+		if (!codec.tryIndex(data, offset, length, frame)) {
+			return;
+		}
+		if (frame.has(RRN)) {
+			long key = HashUtils.hash(data, frame.start(RRN), frame.end(RRN), RRN_SEED);
+			index.putIfAbsent(nonZero(key), position, NOT_FOUND);
+		}
+		if (frame.has(TERMINAL_ID) && frame.has(STAN)) {
+			long key = HashUtils.hash(data, frame.start(TERMINAL_ID), frame.end(TERMINAL_ID), TERMINAL_STAN_SEED);
+			key = HashUtils.hash(data, frame.start(STAN), frame.end(STAN), HashUtils.separator(key));
+			index.putIfAbsent(nonZero(key), position, NOT_FOUND);
+		}
+	}
+
+	private MappedByteBuffer segment(int number) throws IOException {
+		MappedByteBuffer[] mapped = segments;
+		if (number < mapped.length) {
+			return mapped[number];
+		}
+		try (FileChannel channel = FileChannel.open(segmentPath(number),
+			StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+			mapped = Arrays.copyOf(mapped, number + 1);
+			mapped[number] = segment;
+			segments = mapped;
+			return segment;
+		}
+	}
+
+	private Path segmentPath(int number) {
+		return directory.resolve(String.format("journal-%06d.log", number));
+	}
+
+	private static long nonZero(long key) {
+		key = HashUtils.mix(key);
+		return key != 0 ? key : 1;
+	}
+
+	/**
+	 * Recebe cada registro lido em {@link #replay}. O buffer é reutilizado entre chamadas.
+	 */
+	@FunctionalInterface
+	public interface RecordHandler {
+		void accept(long position, long timestamp, byte[] buffer, int length);
+	}
+}
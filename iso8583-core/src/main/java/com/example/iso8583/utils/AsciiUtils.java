@@ -0,0 +1,187 @@
+package com.example.iso8583.utils;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Validação e conversão de dígitos e hexadecimal ASCII sem regex, sem {@code Character.digit}
+ * e sem desvio por caractere.
+ * <p>
+ * Em arrays de bytes, os dígitos são verificados 8 por vez (SWAR: um {@code long} por vez);
+ * em strings, a verificação acumula os caracteres inválidos e testa uma única vez no fim do laço.
+ */
+public final class AsciiUtils {
+
+	private static final VarHandle LONG_VIEW =
+		MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+	private static final long HIGH_NIBBLES = 0xF0F0F0F0F0F0F0F0L;
+	private static final long ALL_THREES = 0x3333333333333333L;
+	private static final long ALL_SIXES = 0x0606060606060606L;
+
+	/**
+	 * Valor de cada caractere ASCII em hexadecimal, ou -1 se inválido
+	 */
+	private static final byte[] HEX_VALUES = new byte[128];
+
+	static {
+		Arrays.fill(HEX_VALUES, (byte) -1);
+		for (int i = 0; i < 10; i++) {
+			HEX_VALUES['0' + i] = (byte) i;
+		}
+		for (int i = 0; i < 6; i++) {
+			HEX_VALUES['A' + i] = (byte) (10 + i);
+			HEX_VALUES['a' + i] = (byte) (10 + i);
+		}
+	}
+
+	private AsciiUtils() {
+		// Utility class
+	}
+
+	/**
+	 * Indica se o intervalo contém apenas dígitos ASCII
+	 *
+	 * @param raw   Texto a verificar
+	 * @param start Posição inicial (inclusiva)
+	 * @param end   Posição final (exclusiva)
+	 */
+	public static boolean isDigits(CharSequence raw, int start, int end) {
+		int invalid = 0;
+		for (int i = start; i < end; i++) {
+			char c = raw.charAt(i);
+			// Negativo se c < '0' ou c > '9'
+			invalid |= (c - '0') | ('9' - c);
+		}
+		return invalid >= 0;
+	}
+
+	/**
+	 * Indica se o texto contém apenas dígitos ASCII
+	 */
+	public static boolean isDigits(CharSequence raw) {
+		return isDigits(raw, 0, raw.length());
+	}
+
+	/**
+	 * Indica se o intervalo do array contém apenas dígitos ASCII, verificando 8 bytes por vez
+	 *
+	 * @param data  Bytes ASCII
+	 * @param start Posição inicial (inclusiva)
+	 * @param end   Posição final (exclusiva)
+	 */
+	public static boolean isDigits(byte[] data, int start, int end) {
+		int i = start;
+		for (; i + 8 <= end; i += 8) {
+			long word = (long) LONG_VIEW.get(data, i);
+			// Cada byte deve ter o nibble alto 3 e continuar com nibble alto 3 após somar 6 (0x30-0x39)
+			if (((word & HIGH_NIBBLES) | (((word + ALL_SIXES) & HIGH_NIBBLES) >>> 4)) != ALL_THREES) {
+				return false;
+			}
+		}
+		int invalid = 0;
+		for (; i < end; i++) {
+			int b = data[i];
+			invalid |= (b - '0') | ('9' - b);
+		}
+		return invalid >= 0;
+	}
+
+	/**
+	 * Indica se o intervalo contém apenas dígitos hexadecimais (maiúsculos ou minúsculos)
+	 */
+	public static boolean isHex(CharSequence raw, int start, int end) {
+		int invalid = 0;
+		for (int i = start; i < end; i++) {
+			invalid |= hexDigit(raw.charAt(i));
+		}
+		return invalid >= 0;
+	}
+
+	/**
+	 * Indica se o intervalo do buffer ASCII contém apenas dígitos hexadecimais (ex: bitmap no frame bruto)
+	 */
+	public static boolean isHex(byte[] data, int start, int end) {
+		int invalid = 0;
+		for (int i = start; i < end; i++) {
+			invalid |= hexDigit((char) (data[i] & 0xFF));
+		}
+		return invalid >= 0;
+	}
+
+	/**
+	 * Lê até 16 dígitos hexadecimais já validados ({@link #isHex(byte[], int, int)}) como long
+	 */
+	public static long parseHexLong(byte[] data, int start, int end) {
+		long value = 0;
+		for (int i = start; i < end; i++) {
+			value = (value << 4) | hexDigit((char) (data[i] & 0xFF));
+		}
+		return value;
+	}
+
+	/**
+	 * Converte o intervalo hexadecimal em bytes, validando todos os caracteres
+	 *
+	 * @throws IllegalArgumentException se o comprimento for ímpar ou houver caracteres inválidos
+	 */
+	public static byte[] hexToBytes(CharSequence raw, int start, int end) {
+		int length = end - start;
+		if ((length & 1) != 0) {
+			throw new IllegalArgumentException("Hex data must have an even length: " + length);
+		}
+
+		byte[] result = new byte[length >> 1];
+		int invalid = 0;
+		for (int i = 0, pos = start; i < result.length; i++, pos += 2) {
+			int high = hexDigit(raw.charAt(pos));
+			int low = hexDigit(raw.charAt(pos + 1));
+			invalid |= high | low;
+			result[i] = (byte) ((high << 4) | low);
+		}
+		if (invalid < 0) {
+			throw new IllegalArgumentException("Invalid hex character in binary field");
+		}
+		return result;
+	}
+
+	/**
+	 * Converte o texto hexadecimal em bytes, validando todos os caracteres
+	 */
+	public static byte[] hexToBytes(CharSequence raw) {
+		return hexToBytes(raw, 0, raw.length());
+	}
+
+	/**
+	 * Valor do dígito hexadecimal (0-15), ou -1 se o caractere não for hexadecimal
+	 */
+	public static int hexDigit(char c) {
+		return c < 128 ? HEX_VALUES[c] : -1;
+	}
+
+	/**
+	 * Escreve o valor em ASCII com zeros à esquerda, direto no buffer, sem criar Strings
+	 *
+	 * @param value  Valor não negativo que caiba em {@code width} dígitos
+	 * @param width  Quantidade de dígitos a escrever
+	 * @param buffer Buffer de destino
+	 * @param offset Posição do primeiro dígito
+	 * @return a posição seguinte ao último dígito
+	 */
+	public static int writeDigits(long value, int width, byte[] buffer, int offset) {
+		if (value < 0) {
+			throw new IllegalArgumentException("Value must not be negative: " + value);
+		}
+		int end = offset + width;
+		for (int i = end - 1; i >= offset; i--) {
+			buffer[i] = (byte) ('0' + value % 10);
+			value /= 10;
+		}
+		if (value != 0) {
+			throw new IllegalArgumentException("Value does not fit in " + width + " digits");
+		}
+		return end;
+	}
+}
@@ -44,6 +44,21 @@ public final class BitmapUtils {
 		return sb.toString();
 	}
 
+	/**
+	 * Escreve uma metade do bitmap (64 bits, campo 1 ou 65 no bit mais alto) como 16 caracteres
+	 * hexadecimais maiúsculos, direto no buffer
+	 *
+	 * @return a posição seguinte ao último caractere
+	 */
+	public static int writeHex(long bitmap, byte[] buffer, int offset) {
+		for (int i = 15; i >= 0; i--) {
+			int nibble = (int) (bitmap & 0xF);
+			buffer[offset + i] = (byte) (nibble < 10 ? '0' + nibble : 'A' + nibble - 10);
+			bitmap >>>= 4;
+		}
+		return offset + 16;
+	}
+
 	/**
 	 * Converte um bitmap ISO 8583 hexadecimal em BitSet
 	 *
@@ -9,6 +9,7 @@ import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoField;
 import java.time.temporal.TemporalAccessor;
+import java.util.Arrays;
 import java.util.BitSet;
 
 /**
@@ -73,8 +74,44 @@ public final class FieldFormatter {
 	 * Formata campo numérico com padding de zeros à esquerda.
 	 */
 	private static <T> String formatNumeric(T value, int length) {
-		String str = value.toString().replaceAll("\\D", ""); // só números
-		return String.format("%0" + length + "d", Long.parseLong(str)); // padding com zeros
+		String str = value.toString();
+		if (!AsciiUtils.isDigits(str)) {
+			str = keepDigits(str); // só números
+		}
+		if (str.isEmpty()) {
+			throw new NumberFormatException("Numeric field without digits: " + value);
+		}
+
+		// Zeros à esquerda além do comprimento são descartados
+		int start = 0;
+		while (str.length() - start > length && start < str.length() - 1 && str.charAt(start) == '0') {
+			start++;
+		}
+
+		int digits = str.length() - start;
+		if (digits >= length) {
+			return start == 0 ? str : str.substring(start);
+		}
+
+		// padding com zeros
+		char[] padded = new char[length];
+		Arrays.fill(padded, 0, length - digits, '0');
+		str.getChars(start, str.length(), padded, length - digits);
+		return new String(padded);
+	}
+
+	/**
+	 * Remove os caracteres não numéricos.
+	 */
+	private static String keepDigits(String str) {
+		StringBuilder digits = new StringBuilder(str.length());
+		for (int i = 0; i < str.length(); i++) {
+			char c = str.charAt(i);
+			if (c >= '0' && c <= '9') {
+				digits.append(c);
+			}
+		}
+		return digits.toString();
 	}
 
 	/**
@@ -137,7 +174,7 @@ public final class FieldFormatter {
 	 */
 	private static <T> String formatBinary(T value, int length) {
 		// valor em hex, padding com 0 até o tamanho
-		String hex = value.toString().replaceAll("\\s+", "");
+		String hex = removeWhitespace(value.toString());
 		int expectedLength = length * 2; // cada byte = 2 hex
 		return String.format("%-" + expectedLength + "s", hex).replace(' ', '0');
 	}
@@ -146,7 +183,7 @@ public final class FieldFormatter {
 	 * Formata campo binário de tamanho variável com indicador de comprimento.
 	 */
 	private static <T> String formatVariableBinary(T value, IsoType type) {
-		String hex = value.toString().replaceAll("\\s+", "");
+		String hex = removeWhitespace(value.toString());
 		int lenBytes = hex.length() / 2;
 		return switch (type) {
 			case LLBIN -> String.format("%02d", lenBytes) + hex;
@@ -156,6 +193,28 @@ public final class FieldFormatter {
 		};
 	}
 
+	/**
+	 * Remove espaços em branco do valor hexadecimal, sem regex e sem cópia quando não houver nenhum.
+	 */
+	private static String removeWhitespace(String str) {
+		int i = 0;
+		while (i < str.length() && !Character.isWhitespace(str.charAt(i))) {
+			i++;
+		}
+		if (i == str.length()) {
+			return str;
+		}
+
+		StringBuilder result = new StringBuilder(str.length()).append(str, 0, i);
+		for (; i < str.length(); i++) {
+			char c = str.charAt(i);
+			if (!Character.isWhitespace(c)) {
+				result.append(c);
+			}
+		}
+		return result.toString();
+	}
+
 	/**
 	 * Converte objeto para LocalDateTime para formatação de datas.
 	 */
@@ -185,23 +244,78 @@ public final class FieldFormatter {
 	@SuppressWarnings("unchecked")
 	public static <T> T decodingValue(String raw, IsoType type) {
 		return switch (type) {
-			case NUMERIC, ALPHA, LLVAR, LLLVAR, LLLLVAR -> (T) raw.trim();
-			case DATE14 -> (T) parseDateTime(raw, FORMAT_DATE14);
-			case DATE12 -> (T) parseDateTime(raw, FORMAT_DATE12);
-			case DATE10 -> (T) parseDateTime(raw, FORMAT_DATE10);
-			case DATE6 -> (T) parseDate(raw, FORMAT_DATE6);
-			case DATE4 -> (T) parseDate(raw, FORMAT_DATE4);
-			case DATE_EXP -> (T) parseDate(raw, FORMAT_DATE_EXP);
-			case TIME -> (T) parseTime(raw);
+			case NUMERIC -> (T) requireDigits(raw, type).trim();
+			case ALPHA, LLVAR, LLLVAR, LLLLVAR -> (T) raw.trim();
+			case DATE14 -> (T) parseDateTime(requireDigits(raw, type), FORMAT_DATE14);
+			case DATE12 -> (T) parseDateTime(requireDigits(raw, type), FORMAT_DATE12);
+			case DATE10 -> (T) parseDateTime(requireDigits(raw, type), FORMAT_DATE10);
+			case DATE6 -> (T) parseDate(requireDigits(raw, type), FORMAT_DATE6);
+			case DATE4 -> (T) parseDate(requireDigits(raw, type), FORMAT_DATE4);
+			case DATE_EXP -> (T) parseDate(requireDigits(raw, type), FORMAT_DATE_EXP);
+			case TIME -> (T) parseTime(requireDigits(raw, type));
 			case AMOUNT -> (T) parseAmount(raw);
-			case BINARY -> (T) parseBinary(raw);
-			case LLBIN, LLLBIN, LLLLBIN -> (T) parseVariableBinary(raw, type);
+			// Em campos variáveis o indicador de comprimento já foi removido: o conteúdo é só o hexadecimal
+			case BINARY, LLBIN, LLLBIN, LLLLBIN -> (T) parseBinary(raw);
 			default -> (T) raw;
 		};
 	}
 
+	/**
+	 * Decoding de um trecho da mensagem usando cache de strings, sem substring quando o valor já está em cache.
+	 * Só campos texto (NUMERIC, ALPHA e LLVAR/LLLVAR/LLLLVAR) usam o cache; os demais seguem o decoding padrão.
+	 *
+	 * @param data  Mensagem ISO 8583
+	 * @param start Posição inicial do campo (inclusiva)
+	 * @param end   Posição final do campo (exclusiva)
+	 * @param type  O tipo ISO 8583 do campo
+	 * @param cache Cache de strings do campo
+	 * @return Objeto Java do tipo especificado
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T decodingValue(String data, int start, int end, IsoType type, StringInternCache cache) {
+		return switch (type) {
+			case NUMERIC -> {
+				if (!AsciiUtils.isDigits(data, start, end)) {
+					throw new IllegalArgumentException(
+						"Invalid NUMERIC field, expected only digits: " + data.substring(start, end));
+				}
+				yield (T) cache.intern(data, start, end);
+			}
+			case ALPHA, LLVAR, LLLVAR, LLLLVAR -> (T) cache.intern(data, start, end);
+			default -> decodingValue(data.substring(start, end), type);
+		};
+	}
+
+	/**
+	 * Indica se o trecho tem o formato esperado pelo tipo, sem lançar exceção: só dígitos em campos
+	 * numéricos, de data/hora e valor; só hexadecimal em campos binários.
+	 *
+	 * @param raw   Mensagem ISO 8583
+	 * @param start Posição inicial do campo (inclusiva)
+	 * @param end   Posição final do campo (exclusiva)
+	 * @param type  O tipo ISO 8583 do campo
+	 */
+	public static boolean isDecodable(CharSequence raw, int start, int end, IsoType type) {
+		return switch (type) {
+			case NUMERIC, DATE14, DATE12, DATE10, DATE6, DATE4, DATE_EXP, TIME, AMOUNT ->
+				AsciiUtils.isDigits(raw, start, end);
+			case BINARY, LLBIN, LLLBIN, LLLLBIN, LLBCDBIN, LLLBCDBIN, LLLLBCDBIN -> AsciiUtils.isHex(raw, start, end);
+			default -> true;
+		};
+	}
+
 	// --- Decoding Helper Methods ---
 
+	/**
+	 * Garante que o campo contém apenas dígitos antes de convertê-lo.
+	 */
+	private static String requireDigits(String raw, IsoType type) {
+		if (!AsciiUtils.isDigits(raw)) {
+			throw new IllegalArgumentException("Invalid " + type + " field, expected only digits: " + raw);
+		}
+		return raw;
+	}
+
 	/**
 	 * Parseia campo de data de acordo com o padrão especificado.
 	 */
@@ -246,6 +360,10 @@ public final class FieldFormatter {
 	 * Parseia valor monetário convertendo de centavos para valor decimal.
 	 */
 	private static BigDecimal parseAmount(String raw) {
+		requireDigits(raw, IsoType.AMOUNT);
+		if (raw.length() <= 18) {
+			return BigDecimal.valueOf(parseDigits(raw, 0, raw.length()), 2);
+		}
 		return new BigDecimal(raw).movePointLeft(2);
 	}
 
@@ -257,40 +375,64 @@ public final class FieldFormatter {
 	}
 
 	/**
-	 * Parseia campo binário de tamanho variável extraindo dados após indicador de comprimento.
+	 * Converte dígitos ASCII diretamente para long, sem substrings, trim, BigDecimal ou boxing.
+	 * Usado para campos NUMERIC e AMOUNT (em centavos) mapeados em propriedades primitivas.
+	 *
+	 * @param raw   Mensagem ISO 8583
+	 * @param start Posição inicial (inclusiva)
+	 * @param end   Posição final (exclusiva), no máximo 18 dígitos
+	 * @return Valor numérico
+	 * @throws NumberFormatException se houver caracteres não numéricos
 	 */
-	private static BitSet parseVariableBinary(String rawData, IsoType type) {
-		int lengthIndicatorSize = switch (type) {
-			case LLBIN -> 2;   // 2 dígitos (bytes)
-			case LLLBIN -> 3;  // 3 dígitos
-			case LLLLBIN -> 4; // 4 dígitos
-			default -> throw new IllegalArgumentException("Tipo inválido para parseVariableBinary: " + type);
-		};
-
-		// Extrai o tamanho em bytes a partir do indicador
-		int lengthInBytes = Integer.parseInt(rawData.substring(0, lengthIndicatorSize));
-
-		// Extrai a parte binária em hex
-		String hexData = rawData.substring(lengthIndicatorSize, lengthIndicatorSize + (lengthInBytes * 2));
+	public static long parseDigits(CharSequence raw, int start, int end) {
+		if (end - start > 18) {
+			throw new NumberFormatException("Numeric field too long for long: " + (end - start) + " digits");
+		}
 
-		return BitSet.valueOf(hexStringToByteArray(hexData));
+		long value = 0;
+		for (int i = start; i < end; i++) {
+			int digit = raw.charAt(i) - '0';
+			if (digit < 0 || digit > 9) {
+				throw new NumberFormatException("Invalid digit at position " + i);
+			}
+			value = value * 10 + digit;
+		}
+		return value;
 	}
 
 	// ========================================
 	// UTILITY METHODS
 	// ========================================
 
+	/**
+	 * Lê o indicador de comprimento de um campo variável sem criar substrings.
+	 *
+	 * @param raw    Mensagem ISO 8583
+	 * @param start  Posição do primeiro dígito do indicador
+	 * @param digits Quantidade de dígitos do indicador (2, 3 ou 4)
+	 * @return Comprimento lido, ou -1 se a mensagem for curta ou contiver caracteres não numéricos
+	 */
+	public static int parseLengthIndicator(CharSequence raw, int start, int digits) {
+		if (start < 0 || raw.length() < start + digits) {
+			return -1;
+		}
+
+		int length = 0;
+		for (int i = start; i < start + digits; i++) {
+			int digit = raw.charAt(i) - '0';
+			if (digit < 0 || digit > 9) {
+				return -1;
+			}
+			length = length * 10 + digit;
+		}
+		return length;
+	}
+
 	/**
 	 * Converte string hexadecimal para array de bytes.
 	 */
 	private static byte[] hexStringToByteArray(String value) {
-		int len = value.length();
-		byte[] data = new byte[len / 2];
-		for (int i = 0; i < len; i += 2) {
-			data[i / 2] = (byte) ((Character.digit(value.charAt(i), 16) << 4)
-				+ Character.digit(value.charAt(i + 1), 16));
-		}
-		return data;
+		return AsciiUtils.hexToBytes(value);
 	}
 
 }
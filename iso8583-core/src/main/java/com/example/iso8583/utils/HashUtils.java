@@ -0,0 +1,73 @@
+package com.example.iso8583.utils;
+
+/**
+ * Hash de 64 bits de trechos de mensagens: FNV-1a byte a byte, seguido da finalização do MurmurHash3
+ * para espalhar os bits altos (usados para escolher shards, faixas e posições em tabelas).
+ * <p>
+ * As versões de {@code byte[]} e de {@link CharSequence} dão o mesmo resultado para o mesmo texto
+ * ASCII, então uma chave calculada sobre o frame pode ser consultada a partir dos valores já formatados.
+ */
+public final class HashUtils {
+
+	/**
+	 * Semente padrão do FNV-1a de 64 bits
+	 */
+	public static final long FNV_OFFSET = 0xCBF29CE484222325L;
+
+	private static final long FNV_PRIME = 0x100000001B3L;
+
+	/**
+	 * Separador entre campos de uma chave composta (US, unit separator)
+	 */
+	private static final int SEPARATOR = 0x1F;
+
+	private HashUtils() {
+		// Utility class
+	}
+
+	/**
+	 * FNV-1a do intervalo, continuando a partir de {@code seed}
+	 *
+	 * @param data  Buffer com o trecho
+	 * @param start Posição inicial (inclusiva)
+	 * @param end   Posição final (exclusiva)
+	 * @param seed  {@link #FNV_OFFSET} ou o hash dos campos anteriores
+	 */
+	public static long hash(byte[] data, int start, int end, long seed) {
+		long h = seed;
+		for (int i = start; i < end; i++) {
+			h = (h ^ (data[i] & 0xFF)) * FNV_PRIME;
+		}
+		return h;
+	}
+
+	/**
+	 * FNV-1a do texto, igual a {@link #hash(byte[], int, int, long)} sobre os mesmos bytes ASCII
+	 */
+	public static long hash(CharSequence value, long seed) {
+		long h = seed;
+		for (int i = 0; i < value.length(); i++) {
+			h = (h ^ (value.charAt(i) & 0xFF)) * FNV_PRIME;
+		}
+		return h;
+	}
+
+	/**
+	 * Acrescenta o separador entre dois campos, para que "12" + "3" e "1" + "23" não colidam
+	 */
+	public static long separator(long h) {
+		return (h ^ SEPARATOR) * FNV_PRIME;
+	}
+
+	/**
+	 * Finalização do MurmurHash3 (fmix64): cada bit de entrada afeta todos os bits de saída
+	 */
+	public static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB9FE1A85EC53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
@@ -0,0 +1,165 @@
+package com.example.iso8583.utils;
+
+import java.util.Arrays;
+
+/**
+ * Mapa de {@code long} para {@code long} com endereçamento aberto (sondagem linear) sobre dois arrays
+ * primitivos, sem boxing nem objeto por entrada.
+ * <p>
+ * A chave 0 é reservada para marcar posições livres e não pode ser usada. Não é thread-safe.
+ */
+public final class LongLongHashMap {
+
+	private long[] keys;
+	private long[] values;
+	private int size;
+	private int resizeAt;
+
+	/**
+	 * @param expectedSize Quantidade de entradas esperada, evitando redimensionamentos iniciais
+	 */
+	public LongLongHashMap(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+		allocate(capacity);
+	}
+
+	/**
+	 * Associa o valor à chave, substituindo o anterior
+	 *
+	 * @return o valor anterior, ou {@code missing} se a chave não existia
+	 */
+	public long put(long key, long value, long missing) {
+		if (key == 0) {
+			throw new IllegalArgumentException("Key 0 is reserved");
+		}
+		int mask = keys.length - 1;
+		int slot = slot(key, mask);
+		while (keys[slot] != 0) {
+			if (keys[slot] == key) {
+				long previous = values[slot];
+				values[slot] = value;
+				return previous;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		if (++size > resizeAt) {
+			resize();
+		}
+		return missing;
+	}
+
+	/**
+	 * Associa o valor à chave somente se ela ainda não existir, mantendo o valor anterior
+	 *
+	 * @return o valor já associado, ou {@code missing} se a chave não existia (e foi inserida)
+	 */
+	public long putIfAbsent(long key, long value, long missing) {
+		if (key == 0) {
+			throw new IllegalArgumentException("Key 0 is reserved");
+		}
+		int mask = keys.length - 1;
+		int slot = slot(key, mask);
+		while (keys[slot] != 0) {
+			if (keys[slot] == key) {
+				return values[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		if (++size > resizeAt) {
+			resize();
+		}
+		return missing;
+	}
+
+	/**
+	 * @return o valor da chave, ou {@code missing} se não existir
+	 */
+	public long get(long key, long missing) {
+		if (key == 0) {
+			return missing;
+		}
+		int mask = keys.length - 1;
+		int slot = slot(key, mask);
+		while (keys[slot] != 0) {
+			if (keys[slot] == key) {
+				return values[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		return missing;
+	}
+
+	/**
+	 * Remove a chave, reposicionando as entradas seguintes da sondagem (sem marcadores de remoção)
+	 *
+	 * @return o valor removido, ou {@code missing} se a chave não existia
+	 */
+	public long remove(long key, long missing) {
+		if (key == 0) {
+			return missing;
+		}
+		int mask = keys.length - 1;
+		int slot = slot(key, mask);
+		while (keys[slot] != key) {
+			if (keys[slot] == 0) {
+				return missing;
+			}
+			slot = (slot + 1) & mask;
+		}
+		long previous = values[slot];
+
+		int gap = slot;
+		for (int next = (gap + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+			int home = slot(keys[next], mask);
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				keys[gap] = keys[next];
+				values[gap] = values[next];
+				gap = next;
+			}
+		}
+		keys[gap] = 0;
+		size--;
+		return previous;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void clear() {
+		Arrays.fill(keys, 0);
+		size = 0;
+	}
+
+	private static int slot(long key, int mask) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new long[capacity];
+		resizeAt = (capacity >> 1) + (capacity >> 2);
+	}
+
+	private void resize() {
+		long[] oldKeys = keys;
+		long[] oldValues = values;
+		allocate(oldKeys.length << 1);
+		int mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != 0) {
+				int slot = slot(oldKeys[i], mask);
+				while (keys[slot] != 0) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+}
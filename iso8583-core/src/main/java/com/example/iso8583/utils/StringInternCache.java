@@ -0,0 +1,85 @@
+package com.example.iso8583.utils;
+
+/**
+ * Cache limitado de strings para campos de baixa cardinalidade (ex: MCC, terminal, estabelecimento, moeda).
+ * <p>
+ * A busca é feita direto sobre o trecho da mensagem: o hash é calculado sem criar substring e, em caso
+ * de acerto, a instância já existente é devolvida sem nenhuma alocação. A tabela é de mapeamento direto
+ * (uma entrada por posição) e um valor novo substitui o que ocupava a mesma posição.
+ * <p>
+ * Seguro para uso concorrente sem locks: as entradas são strings imutáveis e uma corrida no máximo
+ * gera uma falha de cache a mais.
+ */
+public final class StringInternCache {
+
+	/**
+	 * Valores maiores que isso não são guardados, para não reter campos longos
+	 */
+	public static final int MAX_VALUE_LENGTH = 64;
+
+	private final String[] entries;
+	private final int mask;
+
+	/**
+	 * @param size Quantidade de entradas, arredondada para a próxima potência de 2
+	 */
+	public StringInternCache(int size) {
+		if (size <= 0) {
+			throw new IllegalArgumentException("Cache size must be positive: " + size);
+		}
+		int capacity = Integer.highestOneBit(Math.min(size, 1 << 20));
+		if (capacity < size) {
+			capacity <<= 1;
+		}
+		this.entries = new String[capacity];
+		this.mask = capacity - 1;
+	}
+
+	/**
+	 * Retorna o trecho da mensagem sem espaços nas pontas (como {@link String#trim()}),
+	 * reaproveitando a instância em cache quando houver
+	 *
+	 * @param data  Mensagem ISO 8583
+	 * @param start Posição inicial (inclusiva)
+	 * @param end   Posição final (exclusiva)
+	 */
+	public String intern(String data, int start, int end) {
+		while (start < end && data.charAt(start) <= ' ') {
+			start++;
+		}
+		while (end > start && data.charAt(end - 1) <= ' ') {
+			end--;
+		}
+
+		int length = end - start;
+		if (length > MAX_VALUE_LENGTH) {
+			return data.substring(start, end);
+		}
+
+		int hash = 0;
+		for (int i = start; i < end; i++) {
+			hash = 31 * hash + data.charAt(i);
+		}
+		int index = (hash ^ (hash >>> 16)) & mask;
+
+		String cached = entries[index];
+		if (cached != null && cached.length() == length && cached.regionMatches(0, data, start, length)) {
+			return cached;
+		}
+
+		String value = data.substring(start, end);
+		entries[index] = value;
+		return value;
+	}
+
+	/**
+	 * Retorna a instância em cache igual ao valor, ou guarda o próprio valor
+	 */
+	public String intern(String value) {
+		if (value == null) {
+			return null;
+		}
+		String result = intern(value, 0, value.length());
+		return result.equals(value) ? result : value;
+	}
+}
@@ -0,0 +1,78 @@
+package com.example.iso8583.service;
+
+import com.example.iso8583.domain.IsoMessage;
+import com.example.iso8583.enums.IsoType;
+import com.example.iso8583.enums.MacPadding;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetailMacTest {
+
+	private static final HexFormat HEX = HexFormat.of().withUpperCase();
+	private static final byte[] FIPS_113_DATA = "7654321 Now is the time for ".getBytes(StandardCharsets.US_ASCII);
+
+	/**
+	 * Vetor do FIPS 113 (DES CBC-MAC, algoritmo 1 da ISO 9797-1)
+	 */
+	@Test
+	void fips113Vector() {
+		RetailMac mac = new RetailMac(HEX.parseHex("0123456789ABCDEF"));
+		mac.update(FIPS_113_DATA, 0, FIPS_113_DATA.length);
+
+		assertThat(HEX.formatHex(mac.doFinal())).isEqualTo("F1D30F6849312CA4");
+	}
+
+	/**
+	 * Mesmos dados com chave dupla (ANSI X9.19, algoritmo 3)
+	 */
+	@Test
+	void retailMacWithDoubleLengthKey() {
+		RetailMac mac = new RetailMac(HEX.parseHex("0123456789ABCDEFFEDCBA9876543210"));
+		mac.update(FIPS_113_DATA, 0, FIPS_113_DATA.length);
+
+		assertThat(HEX.formatHex(mac.doFinal())).isEqualTo("AE4B45B1B527642F");
+	}
+
+	@Test
+	void incrementalUpdatesMatchSingleUpdate() {
+		RetailMac mac = new RetailMac(HEX.parseHex("0123456789ABCDEF"), MacPadding.METHOD_2);
+		mac.update(FIPS_113_DATA, 0, FIPS_113_DATA.length);
+		byte[] expected = mac.doFinal();
+
+		mac.update(FIPS_113_DATA[0]);
+		mac.update(FIPS_113_DATA, 1, 10);
+		mac.update(new String(FIPS_113_DATA, 11, FIPS_113_DATA.length - 11, StandardCharsets.US_ASCII));
+
+		assertThat(mac.doFinal()).isEqualTo(expected);
+	}
+
+	/**
+	 * O MAC gerado pelo encoder precisa cobrir exatamente os bytes enviados, inclusive fora do ASCII
+	 */
+	@Test
+	void encoderMacCoversWireBytes() {
+		byte[] key = HEX.parseHex("0123456789ABCDEFFEDCBA9876543210");
+		IsoMessage message = new IsoMessage("0200");
+		message.setField(3, "000000", IsoType.NUMERIC, 6);
+		message.setField(4, new BigDecimal("10.50"), IsoType.AMOUNT, 12);
+		message.setField(11, "000123", IsoType.NUMERIC, 6);
+		message.setField(43, "Café €uro", IsoType.ALPHA, 12);
+		BitSet bitmap = new BitSet();
+		message.getFields().keySet().forEach(bitmap::set);
+		message.setBitmap(bitmap);
+
+		byte[] wire = new IsoEncoder().encode(message, new RetailMac(key));
+
+		RetailMac check = new RetailMac(key);
+		check.update(wire, 0, wire.length - 16);
+		String appended = new String(Arrays.copyOfRange(wire, wire.length - 16, wire.length), StandardCharsets.US_ASCII);
+		assertThat(appended).isEqualTo(HEX.formatHex(check.doFinal()));
+	}
+}
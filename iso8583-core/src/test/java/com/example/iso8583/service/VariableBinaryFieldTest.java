@@ -0,0 +1,83 @@
+package com.example.iso8583.service;
+
+import com.example.iso8583.domain.DecodeOutcome;
+import com.example.iso8583.domain.FieldTemplate;
+import com.example.iso8583.domain.IsoMessage;
+import com.example.iso8583.enums.IsoType;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VariableBinaryFieldTest {
+
+	private static final String SPEC = """
+		<iso8583-spec name="binary">
+		  <field number="2" type="LLBIN" length="16"/>
+		  <field number="3" type="LLLBIN" length="64"/>
+		  <field number="11" type="NUMERIC" length="6"/>
+		</iso8583-spec>
+		""";
+
+	private static final String PAYLOAD = "0102030405060708";
+
+	private final SpecCodec codec = new MessageSpecLoader().codec(SPEC.getBytes(StandardCharsets.UTF_8));
+
+	/**
+	 * O conteúdo recebido pelo decoder já vem sem o indicador de comprimento
+	 */
+	@Test
+	void templateDecodeReadsShortVariableBinaryField() {
+		Map<Integer, FieldTemplate> templates = Map.of(2, new FieldTemplate(IsoType.LLBIN, 16));
+
+		DecodeOutcome outcome = new IsoDecoder().tryDecodeWithTemplate("020040000000000000000299AB", templates);
+
+		assertThat(outcome.isSuccess()).isTrue();
+		assertThat(outcome.message().getField(2).value()).isEqualTo(bits("99AB"));
+	}
+
+	@Test
+	void templateDecodeRoundTripsLlbinAndLllbin() {
+		Map<Integer, FieldTemplate> templates = Map.of(
+			2, new FieldTemplate(IsoType.LLBIN, 16),
+			3, new FieldTemplate(IsoType.LLLBIN, 64));
+		IsoMessage message = new IsoMessage("0200");
+		message.setField(2, PAYLOAD, IsoType.LLBIN, 16);
+		message.setField(3, "A1B2C3", IsoType.LLLBIN, 64);
+		BitSet bitmap = new BitSet();
+		bitmap.set(2);
+		bitmap.set(3);
+		message.setBitmap(bitmap);
+		String wire = new String(new IsoEncoder().encode(message), StandardCharsets.ISO_8859_1);
+
+		DecodeOutcome outcome = new IsoDecoder().tryDecodeWithTemplate(wire, templates);
+
+		assertThat(outcome.isSuccess()).isTrue();
+		assertThat(outcome.message().getField(2).value()).isEqualTo(bits(PAYLOAD));
+		assertThat(outcome.message().getField(3).value()).isEqualTo(bits("A1B2C3"));
+	}
+
+	@Test
+	void specCodecRoundTripsVariableBinaryFields() {
+		IsoMessage message = new IsoMessage("0200");
+		codec.setField(message, 2, PAYLOAD);
+		codec.setField(message, 3, "A1B2C3");
+		codec.setField(message, 11, "000123");
+		String wire = new String(codec.encode(message), StandardCharsets.ISO_8859_1);
+
+		DecodeOutcome outcome = codec.tryDecode(wire);
+
+		assertThat(outcome.isSuccess()).isTrue();
+		assertThat(outcome.message().getField(2).value()).isEqualTo(bits(PAYLOAD));
+		assertThat(outcome.message().getField(3).value()).isEqualTo(bits("A1B2C3"));
+		assertThat(outcome.message().getField(11).value()).isEqualTo("000123");
+	}
+
+	private static BitSet bits(String hex) {
+		return BitSet.valueOf(HexFormat.of().parseHex(hex));
+	}
+}
@@ -35,6 +35,12 @@ public @interface Iso8583Field {
 	 */
 	boolean required() default false;
 
+	/**
+	 * Tamanho do cache de strings do campo no decoder (0 = desativado).
+	 * Indicado para campos texto de baixa cardinalidade, como MCC, terminal, estabelecimento e moeda.
+	 */
+	int internCacheSize() default 0;
+
 	/**
 	 * Descrição do campo (para documentação)
 	 */
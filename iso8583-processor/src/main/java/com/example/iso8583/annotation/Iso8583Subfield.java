@@ -0,0 +1,36 @@
+package com.example.iso8583.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Anotação para mapear um subcampo TLV de um campo composto ISO 8583 (ex: DE 48, 55 e 62).
+ * <p>
+ * O campo composto deve ser declarado com @Iso8583Field em uma propriedade do tipo TlvData.
+ * Campos binários (LLBIN, LLLBIN, LLLLBIN) usam BER-TLV em hexadecimal; campos LLVAR, LLLVAR e
+ * LLLLVAR usam tag de 2 caracteres seguida de comprimento de 2 dígitos.
+ * <p>
+ * A propriedade pode ser String (preenchida no decode) ou Supplier&lt;String&gt;, que só indexa o campo
+ * TLV quando lida.
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.SOURCE) // Processada em tempo de compilação
+public @interface Iso8583Subfield {
+
+	/**
+	 * Número do campo composto que contém o subcampo
+	 */
+	int field();
+
+	/**
+	 * Tag do subcampo (ex: "9F26" em BER-TLV, "01" em ASCII)
+	 */
+	String tag();
+
+	/**
+	 * Descrição do subcampo (para documentação)
+	 */
+	String description() default "";
+}
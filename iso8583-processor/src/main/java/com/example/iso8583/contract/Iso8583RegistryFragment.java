@@ -0,0 +1,15 @@
+package com.example.iso8583.contract;
+
+/**
+ * Parte do registry gerada para uma unidade de compilação (um jar/módulo com DTOs anotados).
+ * <p>
+ * Cada fragmento é publicado em {@code META-INF/services} e agregado em runtime por
+ * {@link ServiceLoaderIso8583Registry}.
+ */
+public interface Iso8583RegistryFragment extends Iso8583Registry {
+
+	/**
+	 * Indica se este fragmento possui encoder e decoder para o DTO
+	 */
+	boolean supports(Class<?> dtoType);
+}
@@ -1,7 +1,10 @@
 package com.example.iso8583.contract;
 
 import com.example.iso8583.domain.IsoMessage;
+import com.example.iso8583.service.IsoEncoder;
 import com.example.iso8583.service.IsoMessageFactory;
+import com.example.iso8583.service.MacSink;
+import com.example.iso8583.service.MessageTemplate;
 
 import java.util.BitSet;
 
@@ -42,4 +45,27 @@ public interface IsoMessageEncoder<T> {
 	 * @return Array de bytes da mensagem ISO 8583
 	 */
 	byte[] encode(T dto, IsoMessageFactory factory);
+
+	/**
+	 * Converte o DTO anotado em bytes ISO 8583 com o MAC calculado durante a escrita, no DE 64 ou 128
+	 *
+	 * @param dto Entry Object
+	 * @param mac Destino do MAC (ex: {@code RetailMac})
+	 * @return Array de bytes da mensagem ISO 8583
+	 */
+	default byte[] encode(T dto, MacSink mac) {
+		return new IsoEncoder().encode(toIsoMessage(dto), mac);
+	}
+
+	/**
+	 * Pré-codifica o DTO de exemplo: os campos preenchidos viram constantes, exceto os variáveis,
+	 * escritos a cada mensagem pelo {@link MessageTemplate.Writer}
+	 *
+	 * @param prototype      DTO com os valores constantes (e qualquer valor nos campos variáveis)
+	 * @param variableFields Campos que mudam a cada mensagem (ex: 7, 11, 37)
+	 * @return Template reutilizável
+	 */
+	default MessageTemplate template(T prototype, int... variableFields) {
+		return MessageTemplate.of(toIsoMessage(prototype), variableFields);
+	}
 }
@@ -0,0 +1,57 @@
+package com.example.iso8583.contract;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Registry que agrega todos os fragmentos gerados disponíveis no classpath.
+ * <p>
+ * Os fragmentos são carregados uma única vez na construção. O fragmento responsável por cada DTO
+ * é resolvido na primeira consulta e fica associado à classe via {@link ClassValue}, então o custo
+ * da consulta não cresce com a quantidade de módulos.
+ */
+public final class ServiceLoaderIso8583Registry implements Iso8583Registry {
+
+	private final Iso8583RegistryFragment[] fragments;
+
+	private final ClassValue<Iso8583RegistryFragment> owners = new ClassValue<>() {
+		@Override
+		protected Iso8583RegistryFragment computeValue(Class<?> dtoType) {
+			for (Iso8583RegistryFragment fragment : fragments) {
+				if (fragment.supports(dtoType)) {
+					return fragment;
+				}
+			}
+			return null;
+		}
+	};
+
+	public ServiceLoaderIso8583Registry() {
+		this(ServiceLoaderIso8583Registry.class.getClassLoader());
+	}
+
+	public ServiceLoaderIso8583Registry(ClassLoader classLoader) {
+		List<Iso8583RegistryFragment> loaded = new ArrayList<>();
+		ServiceLoader.load(Iso8583RegistryFragment.class, classLoader).forEach(loaded::add);
+		this.fragments = loaded.toArray(new Iso8583RegistryFragment[0]);
+	}
+
+	@Override
+	public <T> IsoMessageEncoder<T> getEncoder(Class<T> dtoType) {
+		Iso8583RegistryFragment fragment = owners.get(dtoType);
+		if (fragment == null) {
+			throw new IllegalStateException("No encoder found for " + dtoType.getName());
+		}
+		return fragment.getEncoder(dtoType);
+	}
+
+	@Override
+	public <T> IsoMessageDecoder<T> getDecoder(Class<T> dtoType) {
+		Iso8583RegistryFragment fragment = owners.get(dtoType);
+		if (fragment == null) {
+			throw new IllegalStateException("No decoder found for " + dtoType.getName());
+		}
+		return fragment.getDecoder(dtoType);
+	}
+}
@@ -2,17 +2,30 @@ package com.example.iso8583.processor;
 
 import com.example.iso8583.annotation.Iso8583Field;
 import com.example.iso8583.annotation.Iso8583Message;
+import com.example.iso8583.annotation.Iso8583Subfield;
+import com.example.iso8583.enums.IsoType;
+import com.example.iso8583.enums.TlvFormat;
+import com.example.iso8583.processor.meta.ConstructionStyle;
 import com.example.iso8583.processor.meta.FieldMeta;
 import com.example.iso8583.processor.meta.MessageMeta;
+import com.example.iso8583.processor.meta.SubfieldMeta;
+import com.example.iso8583.utils.BitmapUtils;
 import com.google.auto.service.AutoService;
 import com.palantir.javapoet.*;
 
 import javax.annotation.processing.*;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.*;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
 import java.io.IOException;
+import java.io.Writer;
+import java.time.DateTimeException;
 import java.util.*;
 
 import static javax.tools.Diagnostic.Kind;
@@ -23,12 +36,13 @@ import static javax.tools.Diagnostic.Kind;
  * Para cada classe anotada com @Iso8583Message, gera:
  * 1. Um encoder que converte DTO -> IsoMessage/bytes
  * 2. Um decoder que converte IsoMessage/bytes -> DTO
- * 3. Um registry que permite localizar encoders/decoders por tipo
+ * 3. Um fragmento de registry por unidade de compilação, publicado via ServiceLoader
  */
 @AutoService(Processor.class)
 @SupportedAnnotationTypes({
 	"com.example.iso8583.annotation.Iso8583Message",
-	"com.example.iso8583.annotation.Iso8583Field"
+	"com.example.iso8583.annotation.Iso8583Field",
+	"com.example.iso8583.annotation.Iso8583Subfield"
 })
 @SupportedSourceVersion(SourceVersion.RELEASE_21)
 public class Iso8583AnnotationProcessor extends AbstractProcessor {
@@ -67,9 +81,9 @@ public class Iso8583AnnotationProcessor extends AbstractProcessor {
 		}
 
 		for (Element element : roundEnv.getElementsAnnotatedWith(Iso8583Message.class)) {
-			if (element.getKind() != ElementKind.CLASS) {
+			if (element.getKind() != ElementKind.CLASS && element.getKind() != ElementKind.RECORD) {
 				messager.printMessage(Kind.ERROR,
-					"Annotation @Iso8583Message can only be applied to a class", element);
+					"Annotation @Iso8583Message can only be applied to a class or record", element);
 				continue;
 			}
 
@@ -84,11 +98,27 @@ public class Iso8583AnnotationProcessor extends AbstractProcessor {
 		Iso8583Message iso8583Message = dtoType.getAnnotation(Iso8583Message.class);
 		String mti = iso8583Message.mti();
 
+		TypeElement tlvDataType = elementUtils.getTypeElement("com.example.iso8583.domain.TlvData");
+		TypeMirror lazySubfieldType = typeUtils.getDeclaredType(
+			elementUtils.getTypeElement("java.util.function.Supplier"),
+			elementUtils.getTypeElement("java.lang.String").asType());
 		List<FieldMeta> fields = new ArrayList<>();
+		List<SubfieldMeta> subfields = new ArrayList<>();
 		for (Element enclosed : dtoType.getEnclosedElements()) {
 			if (enclosed.getKind() == ElementKind.FIELD) {
 				VariableElement varElement = (VariableElement) enclosed;
 				Iso8583Field iso8583Field = varElement.getAnnotation(Iso8583Field.class);
+				Iso8583Subfield iso8583Subfield = varElement.getAnnotation(Iso8583Subfield.class);
+
+				if (iso8583Subfield != null) {
+					subfields.add(new SubfieldMeta(
+						varElement,
+						iso8583Subfield.field(),
+						iso8583Subfield.tag(),
+						varElement.getSimpleName().toString(),
+						typeUtils.isSameType(varElement.asType(), lazySubfieldType)
+					));
+				}
 
 				if (iso8583Field != null) {
 					String propName = varElement.getSimpleName().toString();
@@ -105,18 +135,47 @@ public class Iso8583AnnotationProcessor extends AbstractProcessor {
 						iso8583Field.type(),
 						length,
 						iso8583Field.required(),
-						propName
+						propName,
+						iso8583Field.internCacheSize(),
+						tlvDataType != null && typeUtils.isSameType(varElement.asType(), tlvDataType.asType())
 					));
 				}
 			}
 		}
 
+		List<VariableElement> properties = new ArrayList<>();
+		fields.forEach(f -> properties.add(f.element()));
+		subfields.forEach(sf -> properties.add(sf.element()));
+
+		List<? extends VariableElement> constructorParameters = List.of();
+		ConstructionStyle construction;
+		ExecutableElement constructor = findConstructor(dtoType, properties);
+		if (dtoType.getKind() != ElementKind.RECORD && hasNoArgConstructorAndSetters(dtoType, properties)) {
+			construction = ConstructionStyle.SETTERS;
+		} else if (constructor != null) {
+			construction = ConstructionStyle.CONSTRUCTOR;
+			constructorParameters = constructor.getParameters();
+		} else if (hasBuilder(dtoType)) {
+			construction = ConstructionStyle.BUILDER;
+			validateBuilder(dtoType, properties);
+		} else {
+			messager.printMessage(Kind.ERROR,
+				"DTO must be a record, have a no-arg constructor and setters, a constructor taking "
+					+ "the mapped properties or a static builder()",
+				dtoType);
+			construction = ConstructionStyle.SETTERS;
+		}
+
 		MessageMeta messageMeta = new MessageMeta(
 			dtoType,
 			mti,
 			fields,
+			subfields,
 			elementUtils.getPackageOf(dtoType).getQualifiedName().toString(),
-			dtoType.getSimpleName().toString()
+			dtoType.getSimpleName().toString(),
+			construction,
+			constructorParameters,
+			resolveAccessors(dtoType, properties)
 		);
 
 		validate(messageMeta);
@@ -125,6 +184,135 @@ public class Iso8583AnnotationProcessor extends AbstractProcessor {
 		collectedMessages.add(messageMeta);
 	}
 
+	/**
+	 * Resolve o metodo de leitura de cada propriedade: getX() em classes, x() em records e DTOs imutáveis
+	 */
+	private Map<String, String> resolveAccessors(TypeElement dtoType, List<VariableElement> properties) {
+		Set<String> methods = new HashSet<>();
+		for (ExecutableElement m : ElementFilter.methodsIn(elementUtils.getAllMembers(dtoType))) {
+			if (m.getParameters().isEmpty() && !m.getModifiers().contains(Modifier.PRIVATE)) {
+				methods.add(m.getSimpleName().toString());
+			}
+		}
+
+		Map<String, String> accessors = new HashMap<>();
+		for (VariableElement property : properties) {
+			String name = property.getSimpleName().toString();
+			String getter = "get" + capitalize(name);
+			if (dtoType.getKind() != ElementKind.RECORD && methods.contains(getter)) {
+				accessors.put(name, getter);
+			} else if (methods.contains(name)) {
+				accessors.put(name, name);
+			} else {
+				messager.printMessage(Kind.ERROR, "No accessor found for property " + name, property);
+				accessors.put(name, getter);
+			}
+		}
+		return accessors;
+	}
+
+	private boolean hasNoArgConstructorAndSetters(TypeElement dtoType, List<VariableElement> properties) {
+		boolean noArgConstructor = ElementFilter.constructorsIn(dtoType.getEnclosedElements())
+			.stream()
+			.anyMatch(c -> c.getParameters().isEmpty() && !c.getModifiers().contains(Modifier.PRIVATE));
+		if (!noArgConstructor) {
+			return false;
+		}
+
+		Set<String> setters = new HashSet<>();
+		for (ExecutableElement m : ElementFilter.methodsIn(elementUtils.getAllMembers(dtoType))) {
+			if (m.getParameters().size() == 1 && !m.getModifiers().contains(Modifier.PRIVATE)) {
+				setters.add(m.getSimpleName().toString());
+			}
+		}
+		return properties.stream()
+			.allMatch(p -> setters.contains("set" + capitalize(p.getSimpleName().toString())));
+	}
+
+	/**
+	 * Procura o construtor canônico (records) ou um construtor cujos parâmetros cobrem, pelo nome e
+	 * tipo, todas as propriedades mapeadas. Em records, componentes não mapeados recebem o valor padrão.
+	 */
+	private ExecutableElement findConstructor(TypeElement dtoType, List<VariableElement> properties) {
+		Map<String, VariableElement> byName = new HashMap<>();
+		properties.forEach(p -> byName.put(p.getSimpleName().toString(), p));
+
+		for (ExecutableElement c : ElementFilter.constructorsIn(dtoType.getEnclosedElements())) {
+			if (c.getModifiers().contains(Modifier.PRIVATE)) {
+				continue;
+			}
+
+			if (dtoType.getKind() == ElementKind.RECORD) {
+				if (c.getParameters().size() == dtoType.getRecordComponents().size()) {
+					return c;
+				}
+				continue;
+			}
+
+			int covered = 0;
+			boolean matches = true;
+			for (VariableElement parameter : c.getParameters()) {
+				VariableElement property = byName.get(parameter.getSimpleName().toString());
+				if (property == null || !typeUtils.isSameType(property.asType(), parameter.asType())) {
+					matches = false;
+					break;
+				}
+				covered++;
+			}
+			if (matches && covered == properties.size()) {
+				return c;
+			}
+		}
+		return null;
+	}
+
+	private boolean hasBuilder(TypeElement dtoType) {
+		return ElementFilter.methodsIn(dtoType.getEnclosedElements())
+			.stream()
+			.anyMatch(m -> m.getSimpleName().contentEquals("builder")
+				&& m.getModifiers().contains(Modifier.STATIC)
+				&& m.getParameters().isEmpty());
+	}
+
+	/**
+	 * O builder precisa de um método prop(valor) para cada propriedade mapeada e de build()
+	 */
+	private void validateBuilder(TypeElement dtoType, List<VariableElement> properties) {
+		ExecutableElement builderMethod = ElementFilter.methodsIn(dtoType.getEnclosedElements())
+			.stream()
+			.filter(m -> m.getSimpleName().contentEquals("builder") && m.getParameters().isEmpty())
+			.findFirst()
+			.orElseThrow();
+		if (builderMethod.getReturnType().getKind() != TypeKind.DECLARED) {
+			messager.printMessage(Kind.ERROR, "builder() must return a builder type", dtoType);
+			return;
+		}
+		TypeElement builderType = (TypeElement) typeUtils.asElement(builderMethod.getReturnType());
+		List<ExecutableElement> methods = ElementFilter.methodsIn(elementUtils.getAllMembers(builderType));
+
+		for (VariableElement property : properties) {
+			String name = property.getSimpleName().toString();
+			boolean declared = methods.stream().anyMatch(m -> m.getSimpleName().contentEquals(name)
+				&& m.getParameters().size() == 1
+				&& !m.getModifiers().contains(Modifier.PRIVATE)
+				&& typeUtils.isAssignable(property.asType(), m.getParameters().get(0).asType()));
+			if (!declared) {
+				messager.printMessage(Kind.ERROR,
+					"Builder " + builderType.getSimpleName() + " has no method " + name + "(" + property.asType() + ")",
+					dtoType);
+			}
+		}
+
+		boolean buildsDto = methods.stream().anyMatch(m -> m.getSimpleName().contentEquals("build")
+			&& m.getParameters().isEmpty()
+			&& typeUtils.isAssignable(m.getReturnType(), dtoType.asType()));
+		if (!buildsDto) {
+			messager.printMessage(Kind.ERROR,
+				"Builder " + builderType.getSimpleName() + " has no build() returning " + dtoType.getSimpleName(),
+				dtoType);
+		}
+	}
+
 	private void validate(MessageMeta meta) {
 		Set<Integer> seen = new HashSet<>();
 
@@ -149,7 +337,107 @@ public class Iso8583AnnotationProcessor extends AbstractProcessor {
 					"Type " + f.type().name() + " requires length > 0",
 					f.element());
 			}
+
+			// Propriedades primitivas: só NUMERIC e AMOUNT (em centavos), sem overflow
+			if (f.isPrimitive()) {
+				if (f.type() != IsoType.NUMERIC && f.type() != IsoType.AMOUNT) {
+					messager.printMessage(Kind.ERROR,
+						"Primitive properties are only supported for NUMERIC and AMOUNT, got: " + f.type().name(),
+						f.element());
+				} else if (f.maxPrimitiveDigits() == 0) {
+					messager.printMessage(Kind.ERROR,
+						"Unsupported primitive type " + f.element().asType() + ", use long, int or short",
+						f.element());
+				} else if (f.fixedWidth() > f.maxPrimitiveDigits()) {
+					messager.printMessage(Kind.ERROR,
+						"Field " + f.number() + " has " + f.fixedWidth() + " digits and does not fit in "
+							+ f.element().asType(),
+						f.element());
+				}
+			}
+
+			// Cache de strings: só para propriedades String de campos texto
+			if (f.internCacheSize() < 0) {
+				messager.printMessage(Kind.ERROR,
+					"internCacheSize must be >= 0, got: " + f.internCacheSize(),
+					f.element());
+			} else if (f.isInterned() && (!f.element().asType().toString().equals("java.lang.String")
+				|| !EnumSet.of(IsoType.NUMERIC, IsoType.ALPHA, IsoType.LLVAR, IsoType.LLLVAR, IsoType.LLLLVAR)
+				.contains(f.type()))) {
+				messager.printMessage(Kind.ERROR,
+					"internCacheSize is only supported on String properties of NUMERIC, ALPHA and LLVAR/LLLVAR/LLLLVAR "
+						+ "fields, got: " + f.type().name(),
+					f.element());
+			}
+
+			// Campos compostos precisam de indicador de comprimento
+			if (f.isComposite() && f.isFixed()) {
+				messager.printMessage(Kind.ERROR,
+					"TlvData field " + f.number() + " must use a variable type (LLVAR, LLLBIN, ...)",
+					f.element());
+			}
 		}
+
+		for (SubfieldMeta sf : meta.subfields()) {
+			FieldMeta parent = compositeField(meta, sf.field());
+			if (parent == null) {
+				messager.printMessage(Kind.ERROR,
+					"Subfield " + sf.tag() + " references field " + sf.field()
+						+ ", which must be declared with @Iso8583Field on a TlvData property",
+					sf.element());
+				continue;
+			}
+
+			if (!sf.lazy() && !sf.element().asType().toString().equals("java.lang.String")) {
+				messager.printMessage(Kind.ERROR,
+					"Subfield " + sf.tag() + " must be a String or Supplier<String>", sf.element());
+			}
+
+			boolean validTag = parent.tlvFormat() == TlvFormat.BER
+				? sf.tag().matches("([0-9A-Fa-f]{2})+")
+				: sf.tag().length() == 2;
+			if (!validTag) {
+				messager.printMessage(Kind.ERROR,
+					"Invalid " + parent.tlvFormat() + " tag for field " + sf.field() + ": " + sf.tag(),
+					sf.element());
+			}
+		}
+	}
+
+	private static CodeBlock primitiveCast(FieldMeta f, CodeBlock parsed) {
+		return switch (f.element().asType().getKind()) {
+			case INT -> CodeBlock.of("(int) $L", parsed);
+			case SHORT -> CodeBlock.of("(short) $L", parsed);
+			default -> parsed;
+		};
+	}
+
+	/**
+	 * Valor do subcampo: Supplier resolve a tag só quando lido, evitando indexar o campo TLV no decode
+	 */
+	private static CodeBlock subfieldValue(SubfieldMeta sf, CodeBlock tlv) {
+		return sf.lazy()
+			? CodeBlock.of("() -> $L.get($S)", tlv, sf.tag())
+			: CodeBlock.of("$L.get($S)", tlv, sf.tag());
+	}
+
+	private static FieldMeta compositeField(MessageMeta meta, int number) {
+		for (FieldMeta f : meta.fields()) {
+			if (f.number() == number && f.isComposite()) {
+				return f;
+			}
+		}
+		return null;
+	}
+
+	private static List<SubfieldMeta> subfieldsOf(MessageMeta meta, int number) {
+		List<SubfieldMeta> result = new ArrayList<>();
+		for (SubfieldMeta sf : meta.subfields()) {
+			if (sf.field() == number) {
+				result.add(sf);
+			}
+		}
+		return result;
 	}
 
 	private void generateEncoder(MessageMeta meta) {
@@ -163,6 +451,8 @@ public class Iso8583AnnotationProcessor extends AbstractProcessor {
 		ClassName isoEncoder = ClassName.get("com.example.iso8583.service", "IsoEncoder");
 		ClassName isoMessageFactory = ClassName.get("com.example.iso8583.service", "IsoMessageFactory");
 		ClassName isoMessageEncoder = ClassName.get("com.example.iso8583.contract", "IsoMessageEncoder");
+		ClassName tlvData = ClassName.get("com.example.iso8583.domain", "TlvData");
+		ClassName tlvFormat = ClassName.get("com.example.iso8583.enums", "TlvFormat");
 
 		// Metodo de validação
 		MethodSpec.Builder validateMethod = MethodSpec.methodBuilder("validateRequirements")
@@ -172,8 +462,8 @@ public class Iso8583AnnotationProcessor extends AbstractProcessor {
 			.addJavadoc("Valida campos obrigatórios");
 
 		for (FieldMeta f : meta.fields()) {
-			if (f.required()) {
-				validateMethod.beginControlFlow("if (dto.get$L() == null)", capitalize(f.propertyName()))
+			if (f.required() && !f.isPrimitive()) {
+				validateMethod.beginControlFlow("if (dto.$L() == null)", meta.accessors().get(f.propertyName()))
 					.addStatement("throw new IllegalArgumentException(\"Field $L (DE $L) is required\")",
 						f.propertyName(), f.number())
 					.endControlFlow();
@@ -209,7 +499,33 @@ public class Iso8583AnnotationProcessor extends AbstractProcessor {
 
 		// Adiciona cada campo à mensagem
 		for (FieldMeta f : meta.fields()) {
-			String getter = "get" + capitalize(f.propertyName()) + "()";
+			String getter = meta.accessors().get(f.propertyName()) + "()";
+			List<SubfieldMeta> subfields = subfieldsOf(meta, f.number());
+
+			if (f.isComposite() && !subfields.isEmpty()) {
+				// Conteúdo recebido é reemitido sem alterações; sem ele, monta a partir dos subcampos
+				String local = "field" + f.number();
+				CodeBlock.Builder builder = CodeBlock.builder()
+					.add("$L = $T.builder($T.$L)$>", local, tlvData, tlvFormat, f.tlvFormat().name());
+				for (SubfieldMeta sf : subfields) {
+					String subGetter = meta.accessors().get(sf.propertyName());
+					if (sf.lazy()) {
+						builder.add("\n.put($S, dto.$L() == null ? null : dto.$L().get())", sf.tag(), subGetter, subGetter);
+					} else {
+						builder.add("\n.put($S, dto.$L())", sf.tag(), subGetter);
+					}
+				}
+				builder.add("\n.build()$<");
+
+				toIsoMessageMethod.addStatement("$T $L = dto.$L", tlvData, local, getter)
+					.beginControlFlow("if ($L == null)", local)
+					.addStatement(builder.build())
+					.endControlFlow()
+					.addStatement("message.setField($L, $L, $T.$L, $L)",
+						f.number(), local, isoType, f.type().name(), f.length());
+				continue;
+			}
+
 			toIsoMessageMethod.addStatement(
 				"message.setField($L, dto.$L, $T.$L, $L)",
 				f.number(), getter, isoType, f.type().name(), f.length()
@@ -270,6 +586,9 @@ public class Iso8583AnnotationProcessor extends AbstractProcessor {
 		ClassName isoMessageFactory = ClassName.get("com.example.iso8583.service", "IsoMessageFactory");
 		ClassName isoMessageDecoder = ClassName.get("com.example.iso8583.contract", "IsoMessageDecoder");
 		ClassName isoType = ClassName.get("com.example.iso8583.enums", "IsoType");
+		ClassName tlvData = ClassName.get("com.example.iso8583.domain", "TlvData");
+		ClassName tlvFormat = ClassName.get("com.example.iso8583.enums", "TlvFormat");
+		ClassName fieldFormatter = ClassName.get("com.example.iso8583.utils", "FieldFormatter");
 		ClassName map = ClassName.get("java.util", "Map");
 		ClassName hashMap = ClassName.get("java.util", "HashMap");
 
@@ -284,6 +603,17 @@ public class Iso8583AnnotationProcessor extends AbstractProcessor {
 			);
 
 		for (FieldMeta f : meta.fields()) {
+			if (f.isComposite()) {
+				createTemplateMethod.addStatement("template.put($L, new $T($T.$L, $L, $T.$L))",
+					f.number(), fieldTemplate, isoType, f.type().name(), f.length(),
+					tlvFormat, f.tlvFormat().name());
+				continue;
+			}
+			if (f.isPrimitive()) {
+				createTemplateMethod.addStatement("template.put($L, new $T($T.$L, $L, null, true))",
+					f.number(), fieldTemplate, isoType, f.type().name(), f.length());
+				continue;
+			}
 			createTemplateMethod.addStatement("template.put($L, new $T($T.$L, $L))",
 				f.number(), fieldTemplate, isoType, f.type().name(), f.length());
 		}
@@ -296,14 +626,25 @@ public class Iso8583AnnotationProcessor extends AbstractProcessor {
 			.addModifiers(Modifier.PUBLIC)
 			.returns(dto)
 			.addParameter(isoMessage, "isoMessage")
-			.addJavadoc("Converte IsoMessage em DTO")
-			.addStatement("$T result = new $T()", dto, dto);
+			.addJavadoc("Converte IsoMessage em DTO");
+		beginResult(fromIsoMessageMethod, meta);
+
+		// Caminho do template: primitivos lidos direto da mensagem pelas posições registradas no decode
+		boolean hasPrimitives = meta.fields().stream().anyMatch(FieldMeta::isPrimitive);
+		int rangesLength = 2 * meta.fields().stream().mapToInt(FieldMeta::number).max().orElse(0) + 2;
+		MethodSpec.Builder fromTemplateMethod = MethodSpec.methodBuilder("fromTemplate")
+			.addModifiers(Modifier.PRIVATE)
+			.returns(dto)
+			.addParameter(isoMessage, "isoMessage")
+			.addParameter(String.class, "data")
+			.addParameter(int[].class, "ranges")
+			.addJavadoc("Converte a mensagem decodificada pelo template em DTO; os campos primitivos não estão na\n"
+				+ "mensagem e são lidos de data nas posições de ranges");
+		beginResult(fromTemplateMethod, meta);
 
-		// Extrai cada campo da mensagem
 		// Extrai cada campo da mensagem
 		for (FieldMeta f : meta.fields()) {
-			String propName = capitalize(f.propertyName());
-			String setter = "set" + propName;
+			String number = String.valueOf(f.number());
 			// Verificar o tipo
 			String javaType = f.element().asType().toString();
 
@@ -315,56 +656,112 @@ public class Iso8583AnnotationProcessor extends AbstractProcessor {
 				}
 			 */
 			// Conversão baseada no tipo do campo no DTO
-			if (javaType.contains("BigDecimal")) {
-				fromIsoMessageMethod.addStatement(
+			CodeBlock declaration;
+			CodeBlock value = CodeBlock.of("field$L.value()", number);
+			if (f.isPrimitive() && f.type() == IsoType.AMOUNT) {
+				declaration = CodeBlock.of(
 					"$T<java.math.BigDecimal> field$L = ($T<java.math.BigDecimal>) isoMessage.getField($L)",
-					isoValue, propName, isoValue, f.number()
+					isoValue, number, isoValue, f.number()
+				);
+				value = CodeBlock.of("field$L.value().movePointRight(2).longValueExact()", number);
+			} else if (f.isPrimitive()) {
+				declaration = CodeBlock.of(
+					"$T<String> field$L = ($T<String>) isoMessage.getField($L)",
+					isoValue, number, isoValue, f.number()
+				);
+				value = primitiveCast(f, CodeBlock.of("$T.parseDigits(field$L.value(), 0, field$L.value().length())",
+					fieldFormatter, number, number));
+			} else if (f.isComposite()) {
+				declaration = CodeBlock.of(
+					"$T<$T> field$L = ($T<$T>) isoMessage.getField($L)",
+					isoValue, tlvData, number, isoValue, tlvData, f.number()
+				);
+			} else if (javaType.contains("BigDecimal")) {
+				declaration = CodeBlock.of(
+					"$T<java.math.BigDecimal> field$L = ($T<java.math.BigDecimal>) isoMessage.getField($L)",
+					isoValue, number, isoValue, f.number()
 				);
 
 			} else if (javaType.contains("LocalDateTime")) {
-				fromIsoMessageMethod.addStatement(
+				declaration = CodeBlock.of(
 					"$T<java.time.LocalDateTime> field$L = ($T<java.time.LocalDateTime>) isoMessage.getField($L)",
-					isoValue, propName, isoValue, f.number()
+					isoValue, number, isoValue, f.number()
 				);
 			} else if (javaType.contains("LocalDate")) {
-				fromIsoMessageMethod.addStatement(
+				declaration = CodeBlock.of(
 					"$T<java.time.LocalDate> field$L = ($T<java.time.LocalDate>) isoMessage.getField($L)",
-					isoValue, propName, isoValue, f.number()
+					isoValue, number, isoValue, f.number()
 				);
 			} else if (javaType.contains("LocalTime")) {
-				fromIsoMessageMethod.addStatement(
+				declaration = CodeBlock.of(
 					"$T<java.time.LocalTime> field$L = ($T<java.time.LocalTime>) isoMessage.getField($L)",
-					isoValue, propName, isoValue, f.number()
+					isoValue, number, isoValue, f.number()
 				);
 			} else {
-				fromIsoMessageMethod.addStatement(
+				declaration = CodeBlock.of(
 					"$T<String> field$L = ($T<String>) isoMessage.getField($L)",
-					isoValue, propName, isoValue, f.number()
+					isoValue, number, isoValue, f.number()
 				);
 			}
 
-			fromIsoMessageMethod
-				.beginControlFlow("if (field$L != null)", propName)
-				.addStatement("result.$L(field$L.value())", setter, propName)
-				.endControlFlow();
+			if (f.isInterned()) {
+				value = CodeBlock.of("$L.intern($L)", internCacheName(f), value);
+			}
+
+			extractField(fromIsoMessageMethod, meta, f, declaration, value);
+			if (!f.isPrimitive()) {
+				extractField(fromTemplateMethod, meta, f, declaration, value);
+				continue;
+			}
+
+			// Dígitos direto para o primitivo, sem IsoValue, BigDecimal, substring ou boxing
+			int rangeStart = 2 * f.number();
+			fromTemplateMethod.beginControlFlow("if (ranges[$L] != 0)", rangeStart + 1);
+			assignProperty(fromTemplateMethod, meta, f.propertyName(), primitiveCast(f,
+				CodeBlock.of("$T.parseDigits(data, ranges[$L], ranges[$L])", fieldFormatter, rangeStart, rangeStart + 1)));
+			fromTemplateMethod.endControlFlow();
 		}
 
+		returnResult(fromIsoMessageMethod, meta);
+		returnResult(fromTemplateMethod, meta);
 
-		fromIsoMessageMethod.addStatement("return result");
+		// Layout esperado: offsets pré-calculados para quando o bitmap coincide com os campos declarados
+		TypeSpec.Builder decoderClassBuilder = TypeSpec.classBuilder(decoderName);
+		for (FieldMeta f : meta.fields()) {
+			if (f.isInterned()) {
+				ClassName internCache = ClassName.get("com.example.iso8583.utils", "StringInternCache");
+				decoderClassBuilder.addField(FieldSpec.builder(internCache, internCacheName(f),
+						Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+					.addJavadoc("Cache de strings do campo $L", f.number())
+					.initializer("new $T($L)", internCache, f.internCacheSize())
+					.build());
+			}
+		}
+		MethodSpec expectedLayoutMethod = generateExpectedLayoutDecoding(meta, decoderClassBuilder);
 
 		// Metodo decode
-		MethodSpec decodeMethod = MethodSpec.methodBuilder("decode")
+		MethodSpec.Builder decodeMethodBuilder = MethodSpec.methodBuilder("decode")
 			.addAnnotation(Override.class)
 			.addModifiers(Modifier.PUBLIC)
 			.returns(dto)
 			.addParameter(String.class, "data")
 			.addJavadoc("Decodifica bytes ISO 8583 em DTO")
+			.addStatement("$T fast = decodeExpectedLayout(data)", dto)
+			.beginControlFlow("if (fast != null)")
+			.addStatement("return fast")
+			.endControlFlow()
 			.addStatement("$T decoder = new $T()", isoDecoder, isoDecoder)
 			.addStatement("$T<Integer, $T> template = createFieldTemplate()",
-				map, fieldTemplate)
-			.addStatement("$T message = decoder.decodeWithTemplate(data, template)", isoMessage)
-			.addStatement("return fromIsoMessage(message)")
-			.build();
+				map, fieldTemplate);
+		if (hasPrimitives) {
+			decodeMethodBuilder.addStatement("int[] ranges = new int[$L]", rangesLength)
+				.addStatement("$T message = decoder.tryDecodeWithTemplate(data, template, ranges).orThrow()", isoMessage)
+				.addStatement("return fromTemplate(message, data, ranges)");
+		} else {
+			decodeMethodBuilder.addStatement("$T message = decoder.decodeWithTemplate(data, template)", isoMessage)
+				.addStatement("return fromIsoMessage(message)");
+		}
+		MethodSpec decodeMethod = decodeMethodBuilder.build();
 
 		// Metodo decode com factory
 		MethodSpec decodeWithFactoryMethod = MethodSpec.methodBuilder("decode")
@@ -379,12 +776,14 @@ public class Iso8583AnnotationProcessor extends AbstractProcessor {
 			.build();
 
 		// Classe do decoder
-		TypeSpec decoderClass = TypeSpec.classBuilder(decoderName)
+		TypeSpec decoderClass = decoderClassBuilder
 			.addJavadoc("Decoder gerado automaticamente para $L.\nNão edite este arquivo.", meta.simpleName())
 			.addModifiers(Modifier.PUBLIC, Modifier.FINAL)
 			.addSuperinterface(ParameterizedTypeName.get(isoMessageDecoder, dto))
 			.addMethod(createTemplateMethod.build())
 			.addMethod(fromIsoMessageMethod.build())
+			.addMethods(hasPrimitives ? List.of(fromTemplateMethod.build()) : List.of())
+			.addMethod(expectedLayoutMethod)
 			.addMethod(decodeMethod)
 			.addMethod(decodeWithFactoryMethod)
 			.build();
@@ -392,89 +791,456 @@ public class Iso8583AnnotationProcessor extends AbstractProcessor {
 		writeJavaFile(generatedPkg, decoderClass);
 	}
 
+	/**
+	 * Gera o caminho rápido do decoder: quando o bitmap recebido é exatamente o conjunto de campos
+	 * declarados, os campos fixos que só têm campos fixos antes de si ficam em offsets absolutos
+	 * conhecidos em tempo de compilação; os demais ficam em offsets constantes relativos ao fim do
+	 * último campo variável. Retorna null quando a mensagem não segue o layout, para usar o template.
+	 */
+	private MethodSpec generateExpectedLayoutDecoding(MessageMeta meta, TypeSpec.Builder decoderClass) {
+		ClassName dto = ClassName.get(meta.packageName(), meta.simpleName());
+		ClassName isoType = ClassName.get("com.example.iso8583.enums", "IsoType");
+		ClassName fieldFormatter = ClassName.get("com.example.iso8583.utils", "FieldFormatter");
+		ClassName tlvData = ClassName.get("com.example.iso8583.domain", "TlvData");
+		ClassName tlvFormat = ClassName.get("com.example.iso8583.enums", "TlvFormat");
+		ClassName asciiUtils = ClassName.get("com.example.iso8583.utils", "AsciiUtils");
+
+		List<FieldMeta> fields = new ArrayList<>(meta.fields());
+		fields.sort(Comparator.comparingInt(FieldMeta::number));
+
+		BitSet declared = new BitSet();
+		for (FieldMeta f : fields) {
+			declared.set(f.number());
+		}
+		String expectedBitmap = BitmapUtils.toIsoBitmapHex(declared);
+		int dataOffset = 4 + expectedBitmap.length();
+
+		// Tamanho mínimo: campos fixos + indicadores de comprimento dos variáveis
+		int[] remaining = new int[fields.size() + 1];
+		for (int i = fields.size() - 1; i >= 0; i--) {
+			FieldMeta f = fields.get(i);
+			remaining[i] = remaining[i + 1] + (f.isFixed() ? f.fixedWidth() : f.type().getLengthDigits());
+		}
+
+		decoderClass.addField(FieldSpec.builder(String.class, "EXPECTED_BITMAP",
+				Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+			.addJavadoc("Bitmap com exatamente os campos declarados no DTO")
+			.initializer("$S", expectedBitmap)
+			.build());
+		decoderClass.addField(FieldSpec.builder(TypeName.INT, "MIN_LENGTH",
+				Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+			.addJavadoc("Tamanho mínimo da mensagem no layout declarado")
+			.initializer("$L", dataOffset + remaining[0])
+			.build());
+
+		decoderClass.addMethod(MethodSpec.methodBuilder("matchesExpectedLayout")
+			.addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+			.returns(TypeName.BOOLEAN)
+			.addParameter(String.class, "data")
+			.addJavadoc("Indica se a mensagem tem MTI numérico e exatamente os campos declarados no bitmap;\n"
+				+ "nesse caso os campos podem ser lidos direto pelas constantes FIELD_n_OFFSET")
+			.addStatement("return data != null && data.length() >= MIN_LENGTH && $T.isDigits(data, 0, 4)"
+				+ " && data.regionMatches(true, 4, EXPECTED_BITMAP, 0, EXPECTED_BITMAP.length())", asciiUtils)
+			.build());
+
+		// Acesso direto a um campo sem decodificar a mensagem: só os indicadores de comprimento anteriores
+		// ao campo são lidos
+		MethodSpec.Builder fieldOffset = MethodSpec.methodBuilder("fieldOffset")
+			.addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+			.returns(TypeName.INT)
+			.addParameter(String.class, "data")
+			.addParameter(TypeName.INT, "fieldNumber")
+			.addJavadoc("Posição do conteúdo do campo na mensagem, sem decodificá-la\n\n"
+				+ "@return a posição, ou -1 se a mensagem não seguir o layout declarado ou o campo não for declarado")
+			.beginControlFlow("if (!matchesExpectedLayout(data))")
+			.addStatement("return -1")
+			.endControlFlow()
+			.addStatement("int pos = $L", dataOffset);
+		for (int i = 0; i < fields.size(); i++) {
+			FieldMeta f = fields.get(i);
+			if (f.isFixed()) {
+				fieldOffset.beginControlFlow("if (fieldNumber == $L)", f.number())
+					.addStatement("return pos")
+					.endControlFlow();
+				if (i < fields.size() - 1) {
+					fieldOffset.addStatement("pos += $L", f.fixedWidth());
+				}
+				continue;
+			}
+			int digits = f.type().getLengthDigits();
+			fieldOffset.beginControlFlow("if (fieldNumber == $L)", f.number())
+				.addStatement("return pos + $L", digits)
+				.endControlFlow();
+			if (i < fields.size() - 1) {
+				String len = "fieldLength" + f.number();
+				fieldOffset.addStatement("int $L = $T.parseLengthIndicator(data, pos, $L)", len, fieldFormatter, digits)
+					.beginControlFlow("if ($L < 0)", len)
+					.addStatement("return -1")
+					.endControlFlow()
+					.addStatement("pos += $L + $L * $L", digits, len, f.type().getCharsPerUnit());
+			}
+		}
+		decoderClass.addMethod(fieldOffset.addStatement("return -1").build());
+
+		// Mensagens fora do layout, com bytes sobrando ou conteúdo inválido voltam null e seguem pelo
+		// template, que reporta o erro com campo e posição
+		MethodSpec.Builder method = MethodSpec.methodBuilder("decodeExpectedLayout")
+			.addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+			.returns(dto)
+			.addParameter(String.class, "data")
+			.addJavadoc("Decodifica por offsets pré-calculados quando o bitmap coincide com o layout declarado")
+			.beginControlFlow("if (!matchesExpectedLayout(data))")
+			.addStatement("return null")
+			.endControlFlow()
+			.beginControlFlow("try");
+		beginResult(method, meta);
+
+		boolean inPrefix = true;
+		int offset = dataOffset;
+		for (int i = 0; i < fields.size(); i++) {
+			FieldMeta f = fields.get(i);
+
+			if (f.isFixed()) {
+				int width = f.fixedWidth();
+				String start;
+				String end;
+				if (inPrefix) {
+					String constant = "FIELD_" + f.number() + "_OFFSET";
+					decoderClass.addField(FieldSpec.builder(TypeName.INT, constant,
+							Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+						.addJavadoc("Posição do campo $L ($L caracteres) quando {@link #matchesExpectedLayout} é verdadeiro",
+							f.number(), width)
+						.initializer("$L", offset)
+						.build());
+					start = constant;
+					end = constant + " + " + width;
+				} else {
+					start = offset == 0 ? "pos" : "pos + " + offset;
+					end = "pos + " + (offset + width);
+				}
+
+				if (f.isPrimitive()) {
+					// Dígitos direto para o primitivo, sem substring, trim, BigDecimal ou boxing
+					assignProperty(method, meta, f.propertyName(),
+						primitiveCast(f, CodeBlock.of("$T.parseDigits(data, $L, $L)", fieldFormatter, start, end)));
+				} else if (f.isInterned()) {
+					// Em acerto de cache a instância existente é reaproveitada, sem substring
+					assignProperty(method, meta, f.propertyName(),
+						CodeBlock.of("$T.decodingValue(data, $L, $L, $T.$L, $L)",
+							fieldFormatter, start, end, isoType, f.type().name(), internCacheName(f)));
+				} else {
+					assignProperty(method, meta, f.propertyName(),
+						CodeBlock.of("$T.decodingValue(data.substring($L, $L), $T.$L)",
+							fieldFormatter, start, end, isoType, f.type().name()));
+				}
+				offset += width;
+				continue;
+			}
+
+			if (inPrefix) {
+				method.addStatement("int pos = $L", offset);
+				inPrefix = false;
+				offset = 0;
+			}
+
+			int digits = f.type().getLengthDigits();
+			String len = "len" + f.number();
+			CodeBlock lengthIndicator = CodeBlock.of("$T.parseLengthIndicator(data, $L, $L)",
+				fieldFormatter, offset == 0 ? "pos" : "pos + " + offset, digits);
+
+			// Em campos binários o indicador conta bytes, transmitidos como 2 caracteres hexadecimais
+			if (f.type().getCharsPerUnit() > 1) {
+				lengthIndicator = CodeBlock.of("$L * $L", lengthIndicator, f.type().getCharsPerUnit());
+			}
+
+			method.addStatement("int $L = $L", len, lengthIndicator)
+				.beginControlFlow("if ($L < 0 || data.length() < pos + $L + $L + $L)",
+					len, offset + digits, len, remaining[i + 1])
+				.addStatement("return null")
+				.endControlFlow();
+
+			if (f.isComposite()) {
+				String local = "field" + f.number();
+				method.addStatement("$T $L = $T.of($T.$L, data.substring(pos + $L, pos + $L + $L))",
+					tlvData, local, tlvData, tlvFormat, f.tlvFormat().name(), offset + digits, offset + digits, len);
+				assignProperty(method, meta, f.propertyName(), CodeBlock.of("$L", local));
+				for (SubfieldMeta sf : subfieldsOf(meta, f.number())) {
+					assignProperty(method, meta, sf.propertyName(), subfieldValue(sf, CodeBlock.of("$L", local)));
+				}
+			} else if (f.isInterned()) {
+				assignProperty(method, meta, f.propertyName(),
+					CodeBlock.of("$T.decodingValue(data, pos + $L, pos + $L + $L, $T.$L, $L)",
+						fieldFormatter, offset + digits, offset + digits, len, isoType, f.type().name(),
+						internCacheName(f)));
+			} else {
+				assignProperty(method, meta, f.propertyName(),
+					CodeBlock.of("$T.decodingValue(data.substring(pos + $L, pos + $L + $L), $T.$L)",
+						fieldFormatter, offset + digits, offset + digits, len, isoType, f.type().name()));
+			}
+
+			method.addStatement("pos += $L + $L", offset + digits, len);
+			offset = 0;
+		}
+
+		// Bytes sobrando depois do último campo: a mensagem não segue o layout
+		method.beginControlFlow("if (data.length() != $L)", inPrefix ? String.valueOf(offset) : "pos + " + offset)
+			.addStatement("return null")
+			.endControlFlow();
+		returnResult(method, meta);
+		method.nextControlFlow("catch ($T | $T e)", IllegalArgumentException.class, DateTimeException.class)
+			.addStatement("return null")
+			.endControlFlow();
+		return method.build();
+	}
+
+	/**
+	 * Inicia a montagem do DTO. Com setters o DTO é instanciado de imediato; com construtor ou builder
+	 * cada propriedade vira uma variável local e o DTO é criado uma única vez em returnResult.
+	 */
+	private static void beginResult(MethodSpec.Builder method, MessageMeta meta) {
+		ClassName dto = ClassName.get(meta.packageName(), meta.simpleName());
+		if (meta.construction() == ConstructionStyle.SETTERS) {
+			method.addStatement("$T result = new $T()", dto, dto);
+			return;
+		}
+
+		for (VariableElement property : meta.properties()) {
+			method.addStatement("$T $L = $L", TypeName.get(property.asType()),
+				localName(property.getSimpleName().toString()), defaultValue(property.asType()));
+		}
+	}
+
+	private static void assignProperty(MethodSpec.Builder method, MessageMeta meta, String property, CodeBlock value) {
+		if (meta.construction() == ConstructionStyle.SETTERS) {
+			method.addStatement("result.set$L($L)", capitalize(property), value);
+		} else {
+			method.addStatement("$L = $L", localName(property), value);
+		}
+	}
+
+	/**
+	 * Lê o campo da IsoMessage e, se presente, atribui a propriedade e os subcampos TLV
+	 */
+	private static void extractField(MethodSpec.Builder method, MessageMeta meta, FieldMeta f, CodeBlock declaration,
+									 CodeBlock value) {
+		method.addStatement(declaration);
+		method.beginControlFlow("if (field$L != null)", f.number());
+		assignProperty(method, meta, f.propertyName(), value);
+
+		// Subcampos TLV: as tags são indexadas uma única vez no primeiro acesso
+		for (SubfieldMeta sf : subfieldsOf(meta, f.number())) {
+			assignProperty(method, meta, sf.propertyName(),
+				subfieldValue(sf, CodeBlock.of("field$L.value()", f.number())));
+		}
+
+		method.endControlFlow();
+	}
+
+	private static void returnResult(MethodSpec.Builder method, MessageMeta meta) {
+		ClassName dto = ClassName.get(meta.packageName(), meta.simpleName());
+		switch (meta.construction()) {
+			case SETTERS -> method.addStatement("return result");
+			case CONSTRUCTOR -> {
+				Set<String> mapped = new HashSet<>();
+				meta.properties().forEach(p -> mapped.add(p.getSimpleName().toString()));
+
+				List<CodeBlock> arguments = new ArrayList<>();
+				for (VariableElement parameter : meta.constructorParameters()) {
+					String name = parameter.getSimpleName().toString();
+					arguments.add(mapped.contains(name)
+						? CodeBlock.of("$L", localName(name))
+						: CodeBlock.of("$L", defaultValue(parameter.asType())));
+				}
+				method.addStatement("return new $T($L)", dto, CodeBlock.join(arguments, ", "));
+			}
+			case BUILDER -> {
+				CodeBlock.Builder builder = CodeBlock.builder().add("return $T.builder()$>", dto);
+				for (VariableElement property : meta.properties()) {
+					String name = property.getSimpleName().toString();
+					builder.add("\n.$L($L)", name, localName(name));
+				}
+				method.addStatement(builder.add("\n.build()$<").build());
+			}
+		}
+	}
+
+	/**
+	 * Nome da variável local de uma propriedade. O prefixo "_" não é usado pelas variáveis e parâmetros do
+	 * código gerado (data, pos, len55, field55, ...), então não há conflito com nenhum nome de propriedade.
+	 */
+	private static String localName(String property) {
+		return "_" + property;
+	}
+
+	private static String internCacheName(FieldMeta f) {
+		return "FIELD_" + f.number() + "_STRINGS";
+	}
+
+	private static String defaultValue(TypeMirror type) {
+		if (type.getKind() == TypeKind.BOOLEAN) {
+			return "false";
+		}
+		return type.getKind().isPrimitive() ? "0" : "null";
+	}
+
 	private void generateRegistry() {
-		ClassName mapClass = ClassName.get("java.util", "Map");
-		ClassName hashMapClass = ClassName.get("java.util", "HashMap");
-		ClassName iso8583Registry = ClassName.get("com.example.iso8583.contract", "Iso8583Registry");
+		ClassName registryFragment = ClassName.get("com.example.iso8583.contract", "Iso8583RegistryFragment");
 		ClassName isoMessageEncoder = ClassName.get("com.example.iso8583.contract", "IsoMessageEncoder");
 		ClassName isoMessageDecoder = ClassName.get("com.example.iso8583.contract", "IsoMessageDecoder");
+		TypeVariableName t = TypeVariableName.get("T");
 
-		TypeName encoderMapType = ParameterizedTypeName.get(mapClass,
-			ClassName.get(Class.class), isoMessageEncoder);
-		TypeName decoderMapType = ParameterizedTypeName.get(mapClass,
-			ClassName.get(Class.class), isoMessageDecoder);
-
-		// Campos para mapas
-		FieldSpec encoderMapField = FieldSpec.builder(encoderMapType, "encoders",
-				Modifier.PRIVATE, Modifier.FINAL)
-			.initializer("new $T()", hashMapClass)
-			.build();
-
-		FieldSpec decoderMapField = FieldSpec.builder(decoderMapType, "decoders",
-				Modifier.PRIVATE, Modifier.FINAL)
-			.initializer("new $T()", hashMapClass)
-			.build();
+		ClassName registryName = registryFragmentName();
+		TypeSpec.Builder registry = TypeSpec.classBuilder(registryName)
+			.addJavadoc("Fragmento de registry gerado automaticamente.\n"
+				+ "Encoders e decoders são criados sob demanda, na primeira consulta de cada DTO.\n"
+				+ "Não edite este arquivo.")
+			.addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+			.addSuperinterface(registryFragment);
 
-		// Construtor que registra todos os encoders/decoders
-		MethodSpec.Builder constructor = MethodSpec.constructorBuilder()
-			.addModifiers(Modifier.PUBLIC);
+		CodeBlock.Builder encoderCases = CodeBlock.builder();
+		CodeBlock.Builder decoderCases = CodeBlock.builder();
+		List<String> supportedNames = new ArrayList<>();
+		Set<String> holderNames = new HashSet<>();
 
 		for (MessageMeta messageMeta : collectedMessages) {
-			ClassName dto = ClassName.get(messageMeta.packageName(), messageMeta.simpleName());
 			ClassName encoder = ClassName.get(messageMeta.packageName() + ".generated",
 				messageMeta.simpleName() + "Encoder");
 			ClassName decoder = ClassName.get(messageMeta.packageName() + ".generated",
 				messageMeta.simpleName() + "Decoder");
+			String binaryName = elementUtils.getBinaryName(messageMeta.type()).toString();
 
-			constructor.addStatement("encoders.put($T.class, new $T())", dto, encoder);
-			constructor.addStatement("decoders.put($T.class, new $T())", dto, decoder);
+			// Holder por DTO: a JVM só inicializa a classe (e instancia o codec) no primeiro acesso
+			String holderName = messageMeta.simpleName() + "Codecs";
+			for (int i = 2; !holderNames.add(holderName); i++) {
+				holderName = messageMeta.simpleName() + "Codecs" + i;
+			}
+			registry.addType(TypeSpec.classBuilder(holderName)
+				.addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+				.addField(FieldSpec.builder(encoder, "ENCODER", Modifier.STATIC, Modifier.FINAL)
+					.initializer("new $T()", encoder)
+					.build())
+				.addField(FieldSpec.builder(decoder, "DECODER", Modifier.STATIC, Modifier.FINAL)
+					.initializer("new $T()", decoder)
+					.build())
+				.build());
+
+			supportedNames.add(binaryName);
+			encoderCases.add("case $S -> $L.ENCODER;\n", binaryName, holderName);
+			decoderCases.add("case $S -> $L.DECODER;\n", binaryName, holderName);
 		}
 
-		// Metodo getEncoder
+		// Switch sobre o nome da classe: sem mapa montado na construção e sem reflexão
 		MethodSpec getEncoderMethod = MethodSpec.methodBuilder("getEncoder")
 			.addAnnotation(Override.class)
+			.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class)
+				.addMember("value", "$S", "unchecked")
+				.build())
 			.addModifiers(Modifier.PUBLIC)
-			.addTypeVariable(TypeVariableName.get("T"))
-			.returns(ParameterizedTypeName.get(isoMessageEncoder, TypeVariableName.get("T")))
-			.addParameter(ParameterizedTypeName.get(ClassName.get(Class.class),
-				TypeVariableName.get("T")), "dtoType")
-			.addStatement("$T encoder = encoders.get(dtoType)", isoMessageEncoder)
-			.beginControlFlow("if (encoder == null)")
-			.addStatement("throw new IllegalStateException(\"No encoder found for \" + dtoType.getName())")
-			.endControlFlow()
-			.addStatement("return ($T) encoder",
-				ParameterizedTypeName.get(isoMessageEncoder, TypeVariableName.get("T")))
+			.addTypeVariable(t)
+			.returns(ParameterizedTypeName.get(isoMessageEncoder, t))
+			.addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), t), "dtoType")
+			.addCode("$T<?> encoder = switch (dtoType.getName()) {\n$>", isoMessageEncoder)
+			.addCode(encoderCases.build())
+			.addCode("default -> throw new IllegalStateException(\"No encoder found for \" + dtoType.getName());\n")
+			.addCode("$<};\n")
+			.addStatement("return ($T) encoder", ParameterizedTypeName.get(isoMessageEncoder, t))
 			.build();
 
-		// Metodo getDecoder
 		MethodSpec getDecoderMethod = MethodSpec.methodBuilder("getDecoder")
 			.addAnnotation(Override.class)
+			.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class)
+				.addMember("value", "$S", "unchecked")
+				.build())
 			.addModifiers(Modifier.PUBLIC)
-			.addTypeVariable(TypeVariableName.get("T"))
-			.returns(ParameterizedTypeName.get(isoMessageDecoder, TypeVariableName.get("T")))
-			.addParameter(ParameterizedTypeName.get(ClassName.get(Class.class),
-				TypeVariableName.get("T")), "dtoType")
-			.addStatement("$T decoder = decoders.get(dtoType)", isoMessageDecoder)
-			.beginControlFlow("if (decoder == null)")
-			.addStatement("throw new IllegalStateException(\"No decoder found for \" + dtoType.getName())")
-			.endControlFlow()
-			.addStatement("return ($T) decoder",
-				ParameterizedTypeName.get(isoMessageDecoder, TypeVariableName.get("T")))
+			.addTypeVariable(t)
+			.returns(ParameterizedTypeName.get(isoMessageDecoder, t))
+			.addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), t), "dtoType")
+			.addCode("$T<?> decoder = switch (dtoType.getName()) {\n$>", isoMessageDecoder)
+			.addCode(decoderCases.build())
+			.addCode("default -> throw new IllegalStateException(\"No decoder found for \" + dtoType.getName());\n")
+			.addCode("$<};\n")
+			.addStatement("return ($T) decoder", ParameterizedTypeName.get(isoMessageDecoder, t))
 			.build();
 
-		// Classe do registry
-		TypeSpec registry = TypeSpec.classBuilder("GeneratedIso8583Registry")
-			.addJavadoc("Registry gerado automaticamente.\nNão edite este arquivo.")
-			.addModifiers(Modifier.PUBLIC, Modifier.FINAL)
-			.addSuperinterface(iso8583Registry)
-			.addField(encoderMapField)
-			.addField(decoderMapField)
-			.addMethod(constructor.build())
-			.addMethod(getEncoderMethod)
-			.addMethod(getDecoderMethod)
+		MethodSpec supportsMethod = MethodSpec.methodBuilder("supports")
+			.addAnnotation(Override.class)
+			.addModifiers(Modifier.PUBLIC)
+			.returns(boolean.class)
+			.addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class)),
+				"dtoType")
+			.addCode("return switch (dtoType.getName()) {\n$>")
+			.addCode("case $L -> true;\n", supportedNames.stream()
+				.map(name -> CodeBlock.of("$S", name))
+				.collect(CodeBlock.joining(", ")))
+			.addCode("default -> false;\n")
+			.addCode("$<};\n")
 			.build();
 
-		writeJavaFile("com.example.iso8583.generated", registry);
+		registry.addMethod(getEncoderMethod);
+		registry.addMethod(getDecoderMethod);
+		registry.addMethod(supportsMethod);
+
+		writeJavaFile(registryName.packageName(), registry.build());
+		writeResource("META-INF/services/" + registryFragment.canonicalName(), registryName.canonicalName() + "\n");
+		generateNativeImageConfig(registryName);
+	}
+
+	/**
+	 * Nome único do fragmento desta unidade de compilação: pacote comum dos DTOs + hash dos DTOs,
+	 * para que jars diferentes não gerem a mesma classe
+	 */
+	private ClassName registryFragmentName() {
+		List<String> names = collectedMessages.stream()
+			.map(meta -> elementUtils.getBinaryName(meta.type()).toString())
+			.sorted()
+			.toList();
+
+		String commonPackage = collectedMessages.get(0).packageName();
+		for (MessageMeta meta : collectedMessages) {
+			while (!meta.packageName().equals(commonPackage) && !meta.packageName().startsWith(commonPackage + ".")) {
+				int dot = commonPackage.lastIndexOf('.');
+				commonPackage = dot < 0 ? "" : commonPackage.substring(0, dot);
+			}
+		}
+
+		String hash = String.format("%08X", String.join(",", names).hashCode());
+		String packageName = commonPackage.isEmpty() ? "generated" : commonPackage + ".generated";
+		return ClassName.get(packageName, "Iso8583Registry_" + hash);
+	}
+
+	/**
+	 * Gera a configuração de reflexão do GraalVM native-image para os DTOs.
+	 * O registry e os codecs não usam reflexão; os DTOs são registrados porque costumam ser
+	 * (de)serializados por frameworks como Jackson na borda da aplicação.
+	 */
+	private void generateNativeImageConfig(ClassName registryName) {
+		StringBuilder json = new StringBuilder("[\n");
+		for (int i = 0; i < collectedMessages.size(); i++) {
+			String binaryName = elementUtils.getBinaryName(collectedMessages.get(i).type()).toString();
+			json.append("  {\n")
+				.append("    \"name\": \"").append(binaryName).append("\",\n")
+				.append("    \"allDeclaredConstructors\": true,\n")
+				.append("    \"allDeclaredMethods\": true,\n")
+				.append("    \"allDeclaredFields\": true\n")
+				.append("  }")
+				.append(i < collectedMessages.size() - 1 ? ",\n" : "\n");
+		}
+		json.append("]\n");
+
+		writeResource("META-INF/native-image/" + registryName.packageName() + "/" + registryName.simpleName()
+			+ "/reflect-config.json", json.toString());
+	}
+
+	private void writeResource(String path, String content) {
+		try {
+			FileObject resource = filer.createResource(StandardLocation.CLASS_OUTPUT, "", path,
+				collectedMessages.stream().map(MessageMeta::type).toArray(Element[]::new));
+			try (Writer writer = resource.openWriter()) {
+				writer.write(content);
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("Error writing generated resource " + path, e);
+		}
 	}
 
 	private void writeJavaFile(String packageName, TypeSpec typeSpec) {
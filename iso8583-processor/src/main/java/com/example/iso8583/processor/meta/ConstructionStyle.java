@@ -0,0 +1,21 @@
+package com.example.iso8583.processor.meta;
+
+/**
+ * Forma como o decoder gerado instancia o DTO.
+ */
+public enum ConstructionStyle {
+	/**
+	 * Construtor sem argumentos seguido de um setter por campo
+	 */
+	SETTERS,
+
+	/**
+	 * Construtor canônico de record ou construtor com todas as propriedades mapeadas
+	 */
+	CONSTRUCTOR,
+
+	/**
+	 * Metodo estático builder() com um metodo por propriedade e build()
+	 */
+	BUILDER
+}
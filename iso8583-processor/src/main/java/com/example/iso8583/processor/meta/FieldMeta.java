@@ -1,16 +1,19 @@
 package com.example.iso8583.processor.meta;
 
 import com.example.iso8583.enums.IsoType;
+import com.example.iso8583.enums.TlvFormat;
 
 import javax.lang.model.element.VariableElement;
 
 /**
- * @param element      o campo ou getter
- * @param number       Número do campo ISO 8583 (2-128)
- * @param type         Tipo do campo ISO 8583
- * @param length       use 0 quando não aplicável (p.ex. LLVAR)
- * @param required     se o campo é obrigatório
- * @param propertyName ex: "pan" -> usado para gerar getPan()
+ * @param element         o campo ou getter
+ * @param number          Número do campo ISO 8583 (2-128)
+ * @param type            Tipo do campo ISO 8583
+ * @param length          use 0 quando não aplicável (p.ex. LLVAR)
+ * @param required        se o campo é obrigatório
+ * @param propertyName    ex: "pan" -> usado para gerar getPan()
+ * @param internCacheSize tamanho do cache de strings no decoder (0 = desativado)
+ * @param composite       se a propriedade é do tipo TlvData
  */
 public record FieldMeta(
 	VariableElement element,
@@ -18,6 +21,62 @@ public record FieldMeta(
 	IsoType type,
 	int length,
 	boolean required,
-	String propertyName
+	String propertyName,
+	int internCacheSize,
+	boolean composite
 ) {
+
+	/**
+	 * Indica se o decoder reaproveita as strings do campo via StringInternCache
+	 */
+	public boolean isInterned() {
+		return internCacheSize > 0;
+	}
+
+	/**
+	 * Indica se o campo tem largura fixa na mensagem (sem indicador de comprimento)
+	 */
+	public boolean isFixed() {
+		return type.getLengthDigits() == 0;
+	}
+
+	/**
+	 * Largura do campo na mensagem, com a mesma regra usada pelo IsoDecoder
+	 */
+	public int fixedWidth() {
+		return type.getFixedLength() > 0 ? type.getFixedLength() : length * type.getCharsPerUnit();
+	}
+
+	/**
+	 * Indica se o campo é composto por subcampos TLV (propriedade do tipo TlvData)
+	 */
+	public boolean isComposite() {
+		return composite;
+	}
+
+	/**
+	 * Formato dos subcampos: BER-TLV para campos binários, tag/comprimento ASCII para os demais
+	 */
+	public TlvFormat tlvFormat() {
+		return type.getCharsPerUnit() == 2 ? TlvFormat.BER : TlvFormat.ASCII;
+	}
+
+	/**
+	 * Indica se a propriedade do DTO é primitiva (long, int ou short)
+	 */
+	public boolean isPrimitive() {
+		return element.asType().getKind().isPrimitive();
+	}
+
+	/**
+	 * Máximo de dígitos que cabem na propriedade primitiva sem overflow
+	 */
+	public int maxPrimitiveDigits() {
+		return switch (element.asType().getKind()) {
+			case LONG -> 18;
+			case INT -> 9;
+			case SHORT -> 4;
+			default -> 0;
+		};
+	}
 }
@@ -1,14 +1,45 @@
 package com.example.iso8583.processor.meta;
 
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
- * @param type        DTO
+ * @param type                  DTO
  * @param mti
  * @param fields
- * @param packageName do DTO
- * @param simpleName  ex: PurchaseRequestDto
+ * @param subfields             subcampos TLV de campos compostos
+ * @param packageName           do DTO
+ * @param simpleName            ex: PurchaseRequestDto
+ * @param construction          como o decoder instancia o DTO
+ * @param constructorParameters parâmetros do construtor usado quando construction = CONSTRUCTOR
+ * @param accessors             propriedade -> metodo de leitura (ex: "pan" -> "getPan" ou "pan")
  */
-public record MessageMeta(TypeElement type, String mti, List<FieldMeta> fields, String packageName, String simpleName) {
+public record MessageMeta(
+	TypeElement type,
+	String mti,
+	List<FieldMeta> fields,
+	List<SubfieldMeta> subfields,
+	String packageName,
+	String simpleName,
+	ConstructionStyle construction,
+	List<? extends VariableElement> constructorParameters,
+	Map<String, String> accessors
+) {
+
+	/**
+	 * Todas as propriedades mapeadas do DTO (campos e subcampos)
+	 */
+	public List<VariableElement> properties() {
+		List<VariableElement> properties = new ArrayList<>();
+		for (FieldMeta f : fields) {
+			properties.add(f.element());
+		}
+		for (SubfieldMeta sf : subfields) {
+			properties.add(sf.element());
+		}
+		return properties;
+	}
 }
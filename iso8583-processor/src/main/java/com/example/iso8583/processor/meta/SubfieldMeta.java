@@ -0,0 +1,19 @@
+package com.example.iso8583.processor.meta;
+
+import javax.lang.model.element.VariableElement;
+
+/**
+ * @param element      o campo do DTO
+ * @param field        Número do campo composto ISO 8583 que contém o subcampo
+ * @param tag          Tag do subcampo
+ * @param propertyName ex: "applicationCryptogram" -> usado para gerar getApplicationCryptogram()
+ * @param lazy         se a propriedade é um Supplier&lt;String&gt;, resolvido só quando lido
+ */
+public record SubfieldMeta(
+	VariableElement element,
+	int field,
+	String tag,
+	String propertyName,
+	boolean lazy
+) {
+}